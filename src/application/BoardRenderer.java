@@ -0,0 +1,107 @@
+package application;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import chess.ChessPiece;
+import chess.PositionSnapshot;
+
+/**
+ * Draws the board to an ANSI terminal, one frame per call, in the same layout as {@link UI#printBoard}. The first
+ * frame clears the screen and draws everything; later frames move the cursor to each cell that changed since the
+ * previous frame and redraw only that cell, then replace the text below the board. Each frame is built in a
+ * reused buffer and written with a single {@code write}, so a frame allocates nothing once the buffers have grown.
+ * <p>
+ * A renderer assumes nothing else draws over the board between frames; call {@link #invalidate()} when something
+ * does.
+ */
+public class BoardRenderer {
+
+	private static final int SIZE = 8;
+	private static final int HIGHLIGHT = 0x80;
+	private static final int FOOTER_LINE = SIZE + 2;
+
+	private OutputStream out;
+	private StringBuilder frame;
+	private byte[] bytes;
+	private int[] cells;
+	private boolean drawn;
+	private int lastFrameBytes;
+
+	public BoardRenderer(OutputStream out) {
+		this.out = out;
+		this.frame = new StringBuilder(1024);
+		this.bytes = new byte[1024];
+		this.cells = new int[SIZE * SIZE];
+	}
+
+	/**
+	 * Draw a frame.
+	 * @param pieces A piece matrix representing a chess board piece distribution
+	 * @param possibleMoves A boolean matrix of tiles to highlight, or {@code null}
+	 * @param footer text to show below the board
+	 * @throws IOException if the frame can't be written
+	 */
+	public void render(ChessPiece[][] pieces, boolean[][] possibleMoves, CharSequence footer) throws IOException {
+		frame.setLength(0);
+		if (!drawn) {
+			frame.append("\033[H\033[2J");
+			UI.appendBoard(frame, pieces, possibleMoves);
+			for (int i = 0; i < SIZE; i++)
+				for (int j = 0; j < SIZE; j++)
+					cells[i * SIZE + j] = cell(pieces[i][j], possibleMoves != null && possibleMoves[i][j]);
+			drawn = true;
+		} else {
+			for (int i = 0; i < SIZE; i++)
+				for (int j = 0; j < SIZE; j++) {
+					boolean highlight = possibleMoves != null && possibleMoves[i][j];
+					int cell = cell(pieces[i][j], highlight);
+					if (cell == cells[i * SIZE + j])
+						continue;
+					cells[i * SIZE + j] = cell;
+					moveCursor(i + 1, 3 + 2 * j);
+					UI.appendPiece(frame, pieces[i][j], highlight);
+				}
+			moveCursor(FOOTER_LINE, 1);
+			frame.append("\033[J");
+		}
+		frame.append(footer);
+		flush();
+	}
+
+	/**
+	 * Make the next frame a full redraw.
+	 */
+	public void invalidate() {
+		drawn = false;
+		Arrays.fill(cells, 0);
+	}
+
+	/**
+	 * @return The size in bytes of the last frame written
+	 */
+	public int getLastFrameBytes() {
+		return lastFrameBytes;
+	}
+
+	private static int cell(ChessPiece piece, boolean highlight) {
+		int cell = piece == null ? 0 : PositionSnapshot.code(piece.getColor(), piece.getType());
+		return highlight ? cell | HIGHLIGHT : cell;
+	}
+
+	private void moveCursor(int line, int column) {
+		frame.append("\033[").append(line).append(';').append(column).append('H');
+	}
+
+	private void flush() throws IOException {
+		int length = frame.length();
+		if (bytes.length < length)
+			bytes = new byte[Math.max(length, bytes.length * 2)];
+		for (int i = 0; i < length; i++)
+			bytes[i] = (byte) frame.charAt(i); // Frames are plain ASCII
+		out.write(bytes, 0, length);
+		out.flush();
+		lastFrameBytes = length;
+	}
+}
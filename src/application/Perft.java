@@ -0,0 +1,23 @@
+package application;
+
+import chess.ChessMatch;
+
+/**
+ * Runs perft from the initial position for every depth up to the given one (4 by default), printing the node count,
+ * elapsed time and nodes per second of each depth.
+ */
+public class Perft {
+
+	public static void main(String[] args) {
+		int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+		ChessMatch chessMatch = new ChessMatch();
+		System.out.printf("%-6s %14s %10s %14s%n", "DEPTH", "NODES", "MS", "NODES/S");
+		for (int depth = 1; depth <= maxDepth; depth++) {
+			long start = System.nanoTime();
+			long nodes = chessMatch.perft(depth);
+			long elapsed = System.nanoTime() - start;
+			System.out.printf("%-6d %14d %10.1f %14.0f%n", depth, nodes, elapsed / 1e6, nodes * 1e9 / Math.max(elapsed, 1));
+		}
+	}
+
+}
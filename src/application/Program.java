@@ -1,7 +1,6 @@
 package application;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
@@ -10,38 +9,85 @@ import chess.ChessException;
 import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.ChessPosition;
+import chess.Color;
+import chess.Move;
+import chess.engine.Engine;
+import chess.engine.SearchResult;
 
+/**
+ * Console chess match between two players. Run with {@code --computer [seconds]} to play white against the computer,
+ * which thinks for the given number of seconds per move (2 by default). Enter {@code undo} or {@code redo} instead
+ * of a source position to take back or replay a turn.
+ */
 public class Program {
 
 	public static void main(String[] args) throws IOException {
 		Scanner sc = new Scanner(System.in);
-		List<ChessPiece> capturedPieces = new ArrayList<ChessPiece>();
 		ChessMatch chessMatch = new ChessMatch();
+		List<ChessPiece> capturedPieces = chessMatch.getCapturedPieces();
+		Engine engine = args.length > 0 && args[0].equals("--computer") ? new Engine() : null;
+		long thinkMillis = args.length > 1 ? (long) (Double.parseDouble(args[1]) * 1000) : 2000;
+		String lastSearch = null;
+		String message = null;
+		String nl = System.lineSeparator();
+		// Everything below the board goes through the renderer's footer, so each frame replaces the previous text
+		BoardRenderer renderer = new BoardRenderer(System.out);
+		StringBuilder footer = new StringBuilder();
 		while (true) {
 			try {
-				UI.clearScreen();
-				UI.printMatch(chessMatch, capturedPieces);
-				System.out.println();
-				System.out.print("Source: ");
-				ChessPosition source = UI.readChessPosition(sc);
+				footer.setLength(0);
+				UI.appendMatchStatus(footer, chessMatch, capturedPieces);
+				footer.append(nl);
+				if (engine != null && chessMatch.getCurrentPlayer() == Color.BLACK) {
+					int statusLength = footer.length();
+					renderer.render(chessMatch.getPieces(), null, footer.append("Computer is thinking...").append(nl));
+					// Search a copy, so the live match's undo/redo history is never touched by the engine
+					SearchResult result = engine.search(new ChessMatch(chessMatch), Engine.MAX_PLY, thinkMillis);
+					if (result.getBestMove() == Move.NONE) {
+						footer.setLength(statusLength);
+						renderer.render(chessMatch.getPieces(), null, footer.append("The computer has no legal move.").append(nl));
+						break;
+					}
+					chessMatch.performChessMove(result.getSource(), result.getTarget());
+					lastSearch = "Computer played " + result;
+					continue;
+				}
+				if (lastSearch != null)
+					footer.append(lastSearch).append(nl);
+				if (message != null)
+					footer.append(message).append(nl);
+				message = null;
+				renderer.render(chessMatch.getPieces(), null, footer.append("Source: "));
+				String input = sc.next();
+				if (input.equals("undo") || input.equals("redo")) {
+					boolean undo = input.equals("undo");
+					if (undo ? !chessMatch.canUndo() : !chessMatch.canRedo())
+						throw new ChessException("There is no move to " + input + ".");
+					// Against the computer a turn is the human's move and the reply, so step until the human is on move
+					do {
+						if (undo)
+							chessMatch.undo();
+						else
+							chessMatch.redo();
+					} while (engine != null && chessMatch.getCurrentPlayer() == Color.BLACK
+							&& (undo ? chessMatch.canUndo() : chessMatch.canRedo()));
+					lastSearch = null;
+					continue;
+				}
+				ChessPosition source = UI.parseChessPosition(input);
 				
 				boolean[][] possibleMoves = chessMatch.possibleMoves(source);
-				UI.clearScreen();
-				UI.printBoard(chessMatch.getPieces(), possibleMoves);
+				renderer.render(chessMatch.getPieces(), possibleMoves, "Target: ");
 				
-				System.out.print("Target: ");
 				ChessPosition target = UI.readChessPosition(sc);
 				
-				ChessPiece capturedPiece = chessMatch.performChessMove(source, target);
-				if(capturedPiece != null)
-					capturedPieces.add(capturedPiece);
+				chessMatch.performChessMove(source, target);
 			} catch (ChessException e) {
-				System.out.println(e.getMessage());
-				sc.nextLine();
+				// Shown in the next frame's footer, so there is no need to wait for Enter
+				message = e.getMessage();
 				sc.nextLine();
 			} catch (InputMismatchException e) {
-				System.out.println(e.getMessage());
-				sc.nextLine();
+				message = e.getMessage();
 				sc.nextLine();
 			}
 		}
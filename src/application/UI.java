@@ -1,11 +1,8 @@
 package application;
 
-import java.util.Arrays;
 import java.util.InputMismatchException;
 import java.util.List;
-import java.util.List;
 import java.util.Scanner;
-import java.util.stream.Collectors;
 
 import chess.ChessMatch;
 import chess.ChessPiece;
@@ -35,6 +32,8 @@ public class UI {
 	public static final String ANSI_CYAN_BACKGROUND = "\u001B[46m";
 	public static final String ANSI_WHITE_BACKGROUND = "\u001B[47m";
 
+	public static final String INVALID_POSITION = "Error reading ChessPosition. Valid values are from a1 to h8.";
+
 	/**
 	 * Clear the console screen.
 	 */
@@ -49,14 +48,18 @@ public class UI {
 	 * @return The equivalent {@code ChessPosition} object
 	 */
 	public static ChessPosition readChessPosition(Scanner sc) {
-		try {
-			String s = sc.next();
-			char column = s.charAt(0);
-			int row = Integer.parseInt(s.substring(1));
-			return new ChessPosition(column, row);
-		} catch (RuntimeException e) {
-			throw new InputMismatchException("Error reading ChessPosition. Valid values are from a1 to h8.");
-		}
+		return parseChessPosition(sc.next());
+	}
+
+	/**
+	 * Parses a chess position string such as {@code e4} and returns the equivalent {@code ChessPosition} object
+	 * @param s A chess position string
+	 * @return The equivalent {@code ChessPosition} object
+	 */
+	public static ChessPosition parseChessPosition(String s) {
+		if (ChessPosition.square(s) < 0)
+			throw new InputMismatchException(INVALID_POSITION);
+		return new ChessPosition(s.charAt(0), s.charAt(1) - '0');
 	}
 
 	/**
@@ -64,16 +67,7 @@ public class UI {
 	 * @param pieces A piece matrix representing a chess board piece distribution
 	 */
 	public static void printBoard(ChessPiece[][] pieces) {
-		System.out.print(ANSI_BLACK_BACKGROUND);
-		System.out.print(ANSI_CYAN);
-		for (int i = 0; i < pieces.length; i++) {
-			System.out.printf(ANSI_GREEN + "%d " + ANSI_CYAN, 8 - i);
-			for (int j = 0; j < pieces[0].length; j++)
-				printPiece(pieces[i][j], false);
-			System.out.println();
-		}
-		System.out.println(ANSI_GREEN + "  a b c d e f g h " + ANSI_CYAN);
-		System.out.print(ANSI_RESET);
+		printBoard(pieces, null);
 	}
 	
 	/**
@@ -82,69 +76,101 @@ public class UI {
 	 * @param capturedPieces A list of all captured chess pieces
 	 */
 	public static void printMatch(ChessMatch chessMatch, List<ChessPiece> capturedPieces) {
-		printBoard(chessMatch.getPieces());
-		System.out.println();
-		printCapturedPieces(capturedPieces);
-		System.out.println();
-		System.out.println("TURN: " + chessMatch.getTurn());
-		System.out.println("WAITING PLAYER: " + chessMatch.getCurrentPlayer());
-		if(chessMatch.getCheck())
-			System.out.println("CHECK!");
+		StringBuilder sb = new StringBuilder(1024);
+		appendBoard(sb, chessMatch.getPieces(), null);
+		appendMatchStatus(sb, chessMatch, capturedPieces);
+		System.out.print(sb);
 	}
 	
 	/**
 	 * Print the board to the standard output, highlighting possible move tiles.
 	 * @param pieces A piece matrix representing a chess board piece distribution
-	 * @param possibleMoves A boolean matrix representing a chess board possible moves distribution
+	 * @param possibleMoves A boolean matrix representing a chess board possible moves distribution, or {@code null}
 	 */
 	public static void printBoard(ChessPiece[][] pieces, boolean[][] possibleMoves) {
-		System.out.print(ANSI_BLACK_BACKGROUND);
-		System.out.print(ANSI_CYAN);
+		StringBuilder sb = new StringBuilder(512);
+		appendBoard(sb, pieces, possibleMoves);
+		System.out.print(sb);
+	}
+
+	/**
+	 * Append the board as printed by {@link #printBoard(ChessPiece[][], boolean[][])}.
+	 */
+	static void appendBoard(StringBuilder sb, ChessPiece[][] pieces, boolean[][] possibleMoves) {
+		sb.append(ANSI_BLACK_BACKGROUND).append(ANSI_CYAN);
 		for (int i = 0; i < pieces.length; i++) {
-			System.out.printf(ANSI_GREEN + "%d " + ANSI_CYAN, 8 - i);
+			sb.append(ANSI_GREEN).append(8 - i).append(' ').append(ANSI_CYAN);
 			for (int j = 0; j < pieces[0].length; j++)
-				printPiece(pieces[i][j], possibleMoves[i][j]);
-			System.out.println();
+				appendPiece(sb, pieces[i][j], possibleMoves != null && possibleMoves[i][j]);
+			sb.append(System.lineSeparator());
 		}
-		System.out.println(ANSI_GREEN + "  a b c d e f g h " + ANSI_CYAN);
-		System.out.print(ANSI_RESET);
+		sb.append(ANSI_GREEN).append("  a b c d e f g h ").append(ANSI_CYAN).append(System.lineSeparator());
+		sb.append(ANSI_RESET);
 	}
 
 	/**
-	 * Print the given {@code ChessPiece} to the standard output. If the chess piece is null, then it
-	 * will print a dash '-'
+	 * Append everything {@link #printMatch(ChessMatch, List)} prints below the board.
+	 */
+	static void appendMatchStatus(StringBuilder sb, ChessMatch chessMatch, List<ChessPiece> capturedPieces) {
+		String nl = System.lineSeparator();
+		sb.append(nl);
+		appendCapturedPieces(sb, capturedPieces);
+		sb.append(nl);
+		sb.append("TURN: ").append(chessMatch.getTurn()).append(nl);
+		sb.append("WAITING PLAYER: ").append(chessMatch.getCurrentPlayer()).append(nl);
+		if(chessMatch.getCheck())
+			sb.append("CHECK!").append(nl);
+	}
+
+	/**
+	 * Append the given {@code ChessPiece} followed by a space. If the chess piece is null, then it
+	 * will append a dash '-'
 	 * @param piece A {@code ChessPiece} object
 	 * @param background If {@code true}, the piece background will be highlighted
 	 */
-	private static void printPiece(ChessPiece piece, boolean background) {
+	static void appendPiece(StringBuilder sb, ChessPiece piece, boolean background) {
 		if (background)
-			System.out.print(ANSI_RED_BACKGROUND);
+			sb.append(ANSI_RED_BACKGROUND);
 		if (piece == null) {
-			System.out.print("-");
+			sb.append('-');
 		} else {
 			if (piece.getColor() == Color.BLACK)
-				System.out.print(ANSI_YELLOW + piece);
+				sb.append(ANSI_YELLOW).append(piece);
 			else
-				System.out.print(ANSI_WHITE + piece);
+				sb.append(ANSI_WHITE).append(piece);
 		}
-		System.out.print(ANSI_RESET + ANSI_CYAN);
-		System.out.print(" ");
+		sb.append(ANSI_RESET).append(ANSI_CYAN);
+		sb.append(' ');
 	}
 	
 	/**
-	 * Print all the captured pieces from each player.
+	 * Append all the captured pieces from each player.
 	 * @param capturedPieces A list of captured chess pieces
 	 */
-	private static void printCapturedPieces(List<ChessPiece> capturedPieces) {
-		List<ChessPiece> white = capturedPieces.stream().filter(x -> x.getColor() == Color.WHITE).collect(Collectors.toList());
-		List<ChessPiece> black = capturedPieces.stream().filter(x -> x.getColor() == Color.BLACK).collect(Collectors.toList());
-		System.out.println("Captured Pieces:");
-		System.out.print(ANSI_WHITE);
-		System.out.println("WHITE: ");
-		System.out.println(Arrays.toString(white.toArray()));
-		System.out.print(ANSI_YELLOW);
-		System.out.println("BLACK: ");
-		System.out.println(Arrays.toString(black.toArray()));
-		System.out.print(ANSI_RESET);
+	private static void appendCapturedPieces(StringBuilder sb, List<ChessPiece> capturedPieces) {
+		String nl = System.lineSeparator();
+		sb.append("Captured Pieces:").append(nl);
+		sb.append(ANSI_WHITE);
+		sb.append("WHITE: ").append(nl);
+		appendPieceList(sb, capturedPieces, Color.WHITE);
+		sb.append(nl);
+		sb.append(ANSI_YELLOW);
+		sb.append("BLACK: ").append(nl);
+		appendPieceList(sb, capturedPieces, Color.BLACK);
+		sb.append(nl);
+		sb.append(ANSI_RESET);
+	}
+
+	private static void appendPieceList(StringBuilder sb, List<ChessPiece> pieces, Color color) {
+		sb.append('[');
+		boolean first = true;
+		for (int i = 0; i < pieces.size(); i++)
+			if (pieces.get(i).getColor() == color) {
+				if (!first)
+					sb.append(", ");
+				sb.append(pieces.get(i));
+				first = false;
+			}
+		sb.append(']');
 	}
 }
@@ -0,0 +1,202 @@
+package application.batch;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.Color;
+import chess.Move;
+import chess.MoveList;
+import chess.MoveStatus;
+import chess.io.GameReader;
+import chess.io.GameVisitor;
+import chess.io.GameWriter;
+
+/**
+ * Replays every game of every archive in a directory through {@code ChessMatch.tryMove} on a
+ * {@code ForkJoinPool} and writes one {@link GameVerdict} per game, sorted by file name. Archives are read with
+ * {@link GameReader}, so they may be binary archives or PGN files. A file that can't be read yields an
+ * unreadable verdict after the verdicts of the games read before the failure.
+ * <p>
+ * Usage: {@code BatchReplay <directory> [threads] [output file]}, or
+ * {@code BatchReplay --generate <directory> <games> <plies>} to write binary archives of random legal games for
+ * throughput tests.
+ */
+public class BatchReplay {
+
+	private static final int GAMES_PER_ARCHIVE = 1000;
+
+	public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+		if (args.length > 0 && args[0].equals("--generate")) {
+			generate(Paths.get(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+			return;
+		}
+		Path directory = Paths.get(args[0]);
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+		long start = System.nanoTime();
+		List<GameVerdict> verdicts = replayAll(directory, threads);
+		long elapsed = System.nanoTime() - start;
+
+		try (PrintWriter out = args.length > 2 ? new PrintWriter(Files.newBufferedWriter(Paths.get(args[2])))
+				: new PrintWriter(System.out)) {
+			for (GameVerdict verdict : verdicts)
+				out.println(verdict);
+		}
+		long moves = verdicts.stream().mapToLong(GameVerdict::getMovesPlayed).sum();
+		long illegal = verdicts.stream().filter(x -> !x.isLegal()).count();
+		long unreadable = verdicts.stream().filter(x -> !x.isReadable()).count();
+		System.err.printf("%d games (%d illegal, %d unreadable files), %d moves in %.2f s on %d threads: %.0f games/s, %.0f moves/s%n",
+				verdicts.size(), illegal, unreadable, moves, elapsed / 1e9, threads, verdicts.size() * 1e9 / elapsed,
+				moves * 1e9 / elapsed);
+	}
+
+	/**
+	 * Replay every archive in {@code directory} in parallel, one file per task. Part files left by a
+	 * {@code GameWriter} are skipped.
+	 * @param directory archive directory
+	 * @param threads parallelism of the fork-join pool
+	 * @return One verdict per game, sorted by file name and then by game order
+	 * @throws IOException if the directory can't be listed
+	 */
+	public static List<GameVerdict> replayAll(Path directory, int threads) throws IOException, InterruptedException, ExecutionException {
+		List<Path> archives;
+		try (Stream<Path> files = Files.list(directory)) {
+			archives = files.filter(Files::isRegularFile)
+					.filter(x -> !x.getFileName().toString().endsWith(GameWriter.PART_EXTENSION)).sorted()
+					.collect(Collectors.toList());
+		}
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			return pool.submit(() -> archives.parallelStream().flatMap(x -> replay(x).stream()).collect(Collectors.toList()))
+					.get();
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Replay every game of one archive. Games are named after the file and their one-based position in it, as in
+	 * {@code games.pgn#3}.
+	 * @param archive archive file
+	 * @return One verdict per game read, followed by an unreadable verdict for the file if reading it failed
+	 */
+	public static List<GameVerdict> replay(Path archive) {
+		String name = archive.getFileName().toString();
+		Replayer replayer = new Replayer(name);
+		try {
+			GameReader.read(archive, replayer, false);
+		} catch (IOException e) {
+			replayer.verdicts.add(GameVerdict.unreadable(name, e.getMessage()));
+		}
+		return replayer.verdicts;
+	}
+
+	private static void generate(Path directory, int games, int plies) throws IOException {
+		Files.createDirectories(directory);
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		MoveList moves = new MoveList();
+		for (int i = 0; i < games; i += GAMES_PER_ARCHIVE) {
+			Path archive = directory.resolve(String.format("games-%05d.bin", i / GAMES_PER_ARCHIVE));
+			try (GameWriter writer = new GameWriter(archive, GameWriter.Format.BINARY)) {
+				for (int j = i; j < Math.min(games, i + GAMES_PER_ARCHIVE); j++) {
+					ChessMatch chessMatch = new ChessMatch();
+					GameWriter.Game game = writer.newGame();
+					for (int ply = 0; ply < plies; ply++) {
+						chessMatch.legalMoves(moves);
+						if (moves.isEmpty())
+							break;
+						int move = moves.get(random.nextInt(moves.size()));
+						game.move(move);
+						chessMatch.makeMove(move);
+					}
+					game.end(GameWriter.UNFINISHED);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Replays the games of one archive. Moves after the first illegal one are ignored.
+	 */
+	private static final class Replayer implements GameVisitor {
+
+		private final String archive;
+		private final List<GameVerdict> verdicts;
+		private ChessMatch chessMatch;
+		private int played;
+		private int illegalMoveIndex;
+		private String reason;
+		private int[] captures;
+
+		private Replayer(String archive) {
+			this.archive = archive;
+			this.verdicts = new ArrayList<>();
+		}
+
+		@Override
+		public void beginGame() {
+			chessMatch = new ChessMatch();
+			played = 0;
+			illegalMoveIndex = -1;
+			reason = null;
+			captures = new int[Color.values().length];
+		}
+
+		@Override
+		public void tag(String name, String value) {
+			if (!name.equals("FEN") || played > 0 || illegalMoveIndex >= 0)
+				return;
+			try {
+				chessMatch = new ChessMatch(value);
+			} catch (ChessException e) {
+				reject(e.getMessage());
+			}
+		}
+
+		@Override
+		public void move(int move) {
+			if (illegalMoveIndex >= 0)
+				return;
+			Color mover = chessMatch.getCurrentPlayer();
+			int status = chessMatch.tryMove(Move.source(move), Move.target(move));
+			if (status != MoveStatus.OK) {
+				reject(MoveStatus.message(status));
+				return;
+			}
+			if (chessMatch.getLastCapturedPiece() != null)
+				captures[mover.ordinal()]++;
+			played++;
+		}
+
+		@Override
+		public void error(int moveIndex, String message) {
+			if (illegalMoveIndex < 0) {
+				illegalMoveIndex = moveIndex;
+				reason = message;
+			}
+		}
+
+		@Override
+		public void endGame(String result) {
+			verdicts.add(new GameVerdict(archive + "#" + (verdicts.size() + 1), played, illegalMoveIndex, reason,
+					chessMatch.getCheck(), captures[Color.WHITE.ordinal()], captures[Color.BLACK.ordinal()]));
+		}
+
+		private void reject(String message) {
+			illegalMoveIndex = played;
+			reason = message;
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package application.batch;
+
+/**
+ * The result of replaying one stored game, or of failing to read an archive.
+ */
+public class GameVerdict {
+
+	private String game;
+	private boolean readable;
+	private int movesPlayed;
+	private int illegalMoveIndex;
+	private String reason;
+	private boolean finalCheck;
+	private int whiteCaptures;
+	private int blackCaptures;
+
+	public GameVerdict(String game, int movesPlayed, int illegalMoveIndex, String reason, boolean finalCheck,
+			int whiteCaptures, int blackCaptures) {
+		this.game = game;
+		this.readable = true;
+		this.movesPlayed = movesPlayed;
+		this.illegalMoveIndex = illegalMoveIndex;
+		this.reason = reason;
+		this.finalCheck = finalCheck;
+		this.whiteCaptures = whiteCaptures;
+		this.blackCaptures = blackCaptures;
+	}
+
+	/**
+	 * A verdict for an archive that could not be read past some point.
+	 * @param archive archive file name
+	 * @param reason why reading failed
+	 * @return An illegal, unreadable {@code GameVerdict} with no moves played
+	 */
+	public static GameVerdict unreadable(String archive, String reason) {
+		GameVerdict verdict = new GameVerdict(archive, 0, 0, reason, false, 0, 0);
+		verdict.readable = false;
+		return verdict;
+	}
+
+	public String getGame() {
+		return game;
+	}
+
+	public int getMovesPlayed() {
+		return movesPlayed;
+	}
+
+	/**
+	 * @return {@code false} if this verdict reports an archive that could not be read
+	 */
+	public boolean isReadable() {
+		return readable;
+	}
+
+	public boolean isLegal() {
+		return illegalMoveIndex < 0;
+	}
+
+	/**
+	 * @return The zero-based index of the first illegal move, or {@code -1} if every move was legal
+	 */
+	public int getIllegalMoveIndex() {
+		return illegalMoveIndex;
+	}
+
+	/**
+	 * @return Why the move at {@link #getIllegalMoveIndex()} was rejected, or {@code null} if the game is legal
+	 */
+	public String getReason() {
+		return reason;
+	}
+
+	/**
+	 * @return {@code true} if the side to move was in check after the last legal move
+	 */
+	public boolean getFinalCheck() {
+		return finalCheck;
+	}
+
+	/**
+	 * @return The number of black pieces white captured
+	 */
+	public int getWhiteCaptures() {
+		return whiteCaptures;
+	}
+
+	/**
+	 * @return The number of white pieces black captured
+	 */
+	public int getBlackCaptures() {
+		return blackCaptures;
+	}
+
+	/**
+	 * @return A tab-separated line: game, verdict, moves played, illegal move index, final check, white captures,
+	 *         black captures and reason
+	 */
+	@Override
+	public String toString() {
+		return String.join("\t", game, !readable ? "UNREADABLE" : isLegal() ? "LEGAL" : "ILLEGAL", String.valueOf(movesPlayed),
+				String.valueOf(illegalMoveIndex), finalCheck ? "CHECK" : "-", String.valueOf(whiteCaptures),
+				String.valueOf(blackCaptures), reason == null ? "-" : reason);
+	}
+}
@@ -0,0 +1,41 @@
+package application.lookup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+
+import chess.lookup.OpeningBookBuilder;
+import chess.lookup.PositionLookup;
+import chess.lookup.TablebaseGenerator;
+
+/**
+ * Builds the lookup tables read by {@link PositionLookup}: the King and Rook versus King tablebase and, when game
+ * archives are given, an opening book from their first {@value OpeningBookBuilder#DEFAULT_PLIES} plies.
+ * <p>
+ * Usage: {@code BuildTables <output directory> [threads] [archive...]}
+ */
+public class BuildTables {
+
+	public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+		Path directory = Paths.get(args[0]);
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		Files.createDirectories(directory);
+
+		long start = System.nanoTime();
+		byte[] table = TablebaseGenerator.generate(threads);
+		TablebaseGenerator.write(directory.resolve(PositionLookup.ENDGAME_FILE), table);
+		System.out.printf("Tablebase: %d entries in %.2f s on %d threads%n", table.length, (System.nanoTime() - start) / 1e9, threads);
+
+		if (args.length > 2) {
+			start = System.nanoTime();
+			OpeningBookBuilder builder = new OpeningBookBuilder();
+			for (int i = 2; i < args.length; i++)
+				builder.add(Paths.get(args[i]));
+			int entries = builder.write(directory.resolve(PositionLookup.BOOK_FILE));
+			System.out.printf("Opening book: %d positions, %d moves in %.2f s%n", builder.getPositions(), entries,
+					(System.nanoTime() - start) / 1e9);
+		}
+	}
+}
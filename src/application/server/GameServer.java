@@ -0,0 +1,222 @@
+package application.server;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import chess.ChessMatch;
+import chess.io.JournalManager;
+import chess.io.MatchJournal;
+import chess.metrics.MetricsServer;
+import chess.metrics.MoveMetrics;
+
+/**
+ * Hosts many concurrent matches, one {@code GameSession} per client connection, each on its own thread. Every match
+ * runs on one shard of a {@link ShardScheduler} and is published on a {@link SpectatorHub} under a server-wide
+ * match id. See {@code GameSession} for the protocol.
+ * <p>
+ * With a {@link JournalManager}, every hosted match is journaled until it ends. On startup the matches left in the
+ * journal directory by a crash are rebuilt with {@link JournalManager#recover()} and kept, under their old match
+ * ids, until a player takes one over with {@code RESUME}.
+ * <p>
+ * Usage: {@code GameServer [port] [metricsPort|-] [journalDir]}. Given a metrics port, move metrics are turned on
+ * and served by a {@link MetricsServer} on the loopback interface.
+ */
+public class GameServer {
+
+	public static final int DEFAULT_PORT = 5555;
+	public static final long JOURNAL_COMMIT_MICROS = 2000;
+
+	private int port;
+	private AtomicInteger activeSessions;
+	private AtomicInteger peakSessions;
+	private AtomicLong matchIds;
+	private SpectatorHub spectatorHub;
+	private ShardScheduler scheduler;
+	private Matchmaker matchmaker;
+	private JournalManager journals;
+	private ConcurrentHashMap<Long, MatchJournal> matchJournals;
+	private ConcurrentHashMap<Long, ChessMatch> recovered;
+
+	public GameServer(int port) {
+		this.port = port;
+		this.activeSessions = new AtomicInteger();
+		this.peakSessions = new AtomicInteger();
+		this.matchIds = new AtomicLong();
+		this.spectatorHub = new SpectatorHub();
+		this.scheduler = new ShardScheduler(Runtime.getRuntime().availableProcessors());
+		this.matchmaker = new Matchmaker(this);
+		this.matchJournals = new ConcurrentHashMap<Long, MatchJournal>();
+		this.recovered = new ConcurrentHashMap<Long, ChessMatch>();
+	}
+
+	/**
+	 * A server that journals its matches, starting with the matches recovered from {@code journals}.
+	 * @param port TCP port
+	 * @param journals A {@code JournalManager}, owned by the server from now on
+	 * @throws IOException if a journal can't be recovered
+	 */
+	public GameServer(int port, JournalManager journals) throws IOException {
+		this(port);
+		this.journals = journals;
+		for (Map.Entry<String, ChessMatch> e : journals.recover().entrySet()) {
+			long matchId;
+			try {
+				matchId = Long.parseLong(e.getKey());
+			} catch (NumberFormatException ex) {
+				continue; // Not one of ours
+			}
+			matchJournals.put(matchId, journals.journal(e.getKey()));
+			recovered.put(matchId, e.getValue());
+			matchIds.accumulateAndGet(matchId, Math::max);
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		if (args.length > 1 && !args[1].equals("-")) {
+			MetricsServer metrics = new MetricsServer(Integer.parseInt(args[1]));
+			MoveMetrics.setEnabled(true);
+			System.out.println("Metrics on http://localhost:" + metrics.getPort() + "/metrics");
+		}
+		GameServer server;
+		if (args.length > 2) {
+			server = new GameServer(port, new JournalManager(Paths.get(args[2]), JOURNAL_COMMIT_MICROS));
+			System.out.println("Recovered matches: " + server.getRecoveredMatches());
+		} else {
+			server = new GameServer(port);
+		}
+		server.serve();
+	}
+
+	/**
+	 * Accept connections until the process is stopped.
+	 * @throws IOException if the server socket can't be opened
+	 */
+	public void serve() throws IOException {
+		Thread reporter = new Thread(this::report, "session-reporter");
+		reporter.setDaemon(true);
+		reporter.start();
+
+		ExecutorService sessions = SessionThreads.newThreadPerTaskExecutor();
+		try (ServerSocket serverSocket = new ServerSocket(port, 4096)) {
+			System.out.println("Listening on port " + port + " (virtual threads: "
+					+ (SessionThreads.virtualThreadsAvailable() ? "yes" : "no") + ")");
+			while (true) {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				sessions.execute(new GameSession(socket, this));
+			}
+		} finally {
+			sessions.shutdown();
+		}
+	}
+
+	public int getActiveSessions() {
+		return activeSessions.get();
+	}
+
+	public int getPeakSessions() {
+		return peakSessions.get();
+	}
+
+	public SpectatorHub getSpectatorHub() {
+		return spectatorHub;
+	}
+
+	public ShardScheduler getScheduler() {
+		return scheduler;
+	}
+
+	public Matchmaker getMatchmaker() {
+		return matchmaker;
+	}
+
+	/**
+	 * @return The number of recovered matches no player has resumed yet
+	 */
+	public int getRecoveredMatches() {
+		return recovered.size();
+	}
+
+	/**
+	 * Journal a new match, publish it to spectators and host it on a shard.
+	 * @param matchId match identifier
+	 * @param chessMatch A {@code ChessMatch} object, which must not be used directly afterwards
+	 * @param players number of players that must leave to end the match
+	 */
+	void hostMatch(long matchId, ChessMatch chessMatch, int players) {
+		if (journals != null && !matchJournals.containsKey(matchId))
+			try {
+				matchJournals.put(matchId, journals.attach(Long.toString(matchId), chessMatch));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		spectatorHub.open(matchId, chessMatch);
+		scheduler.register(matchId, chessMatch, players);
+	}
+
+	/**
+	 * Host a recovered match again, for one player.
+	 * @param matchId match identifier
+	 * @return {@code false} if there is no recovered match with that id, or it was already resumed
+	 */
+	boolean resumeMatch(long matchId) {
+		ChessMatch chessMatch = recovered.remove(matchId);
+		if (chessMatch == null)
+			return false;
+		hostMatch(matchId, chessMatch, 1);
+		return true;
+	}
+
+	/**
+	 * A player left a match; end it if it was the last one.
+	 * @param matchId match identifier
+	 */
+	void leaveMatch(long matchId) {
+		if (!scheduler.release(matchId))
+			return;
+		spectatorHub.close(matchId);
+		MatchJournal journal = matchJournals.remove(matchId);
+		if (journal != null)
+			try {
+				journals.delete(journal);
+			} catch (IOException e) {
+				System.err.println("Can't delete the journal of match " + matchId + ": " + e);
+			}
+	}
+
+	long newMatchId() {
+		return matchIds.incrementAndGet();
+	}
+
+	void sessionOpened() {
+		peakSessions.accumulateAndGet(activeSessions.incrementAndGet(), Math::max);
+	}
+
+	void sessionClosed() {
+		activeSessions.decrementAndGet();
+	}
+
+	private void report() {
+		while (true) {
+			try {
+				Thread.sleep(5000);
+			} catch (InterruptedException e) {
+				return;
+			}
+			System.out.println("Active sessions: " + getActiveSessions() + " (peak " + getPeakSessions() + "), spectator events: "
+					+ spectatorHub.getPublished() + " published, " + spectatorHub.getDelivered() + " delivered, "
+					+ spectatorHub.getCoalesced() + " coalesced");
+			for (int i = 0; i < scheduler.getShards(); i++)
+				System.out.println("  " + scheduler.getStats(i));
+		}
+	}
+}
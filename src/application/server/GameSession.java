@@ -0,0 +1,261 @@
+package application.server;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import application.UI;
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Color;
+import chess.Move;
+import chess.MoveList;
+import chess.MoveStatus;
+
+/**
+ * One client connection playing a {@code ChessMatch} over a line-based protocol. The match is hosted on the server's
+ * {@link ShardScheduler}, so every request against it runs on the match's shard. Every request is one line
+ * and gets exactly one reply line:
+ * <ul>
+ * <li>{@code MOVE <source> <target>}: {@code OK <captured piece or -> <check 0 or 1>} or {@code ERR <message>}</li>
+ * <li>{@code MOVES}: {@code MOVES} followed by every legal move in coordinate notation, such as {@code c1c3}</li>
+ * <li>{@code BOARD}: {@code BOARD} followed by 64 characters from a8 to h1: {@code -} for an empty cell, upper case
+ * for white and lower case for black pieces</li>
+ * <li>{@code NEW}: starts a new match, replies {@code OK}</li>
+ * <li>{@code FIND}: waits up to {@value #FIND_TIMEOUT_SECONDS} seconds for another player, then replies
+ * {@code MATCH <match id> <WHITE or BLACK>} and from then on only moves that color, or {@code ERR <message>}. Use
+ * {@code WATCH} on the match id to follow the opponent's moves.</li>
+ * <li>{@code RESUME <match id>}: takes over a match recovered from the server's journals after a restart, playing
+ * both sides, and replies {@code OK} or {@code ERR <message>}</li>
+ * <li>{@code ID}: {@code ID <match id>} of this session's match, for spectators to watch</li>
+ * <li>{@code WATCH <match id>}: {@code OK}, then the {@link SpectatorEvent} lines of that match as it is played,
+ * interleaved with the replies to later requests, or {@code ERR <message>}</li>
+ * <li>{@code UNWATCH}: stops watching, replies {@code OK}</li>
+ * <li>{@code QUIT}: replies {@code BYE} and closes the connection</li>
+ * </ul>
+ */
+public class GameSession implements Runnable, Spectator {
+
+	public static final long FIND_TIMEOUT_SECONDS = 60;
+
+	private Socket socket;
+	private GameServer server;
+	private long matchId;
+	private Color color;
+	private MoveList moves;
+	private OutputStream out;
+	private ReentrantLock outLock;
+	private SpectatorHub.Subscription subscription;
+
+	public GameSession(Socket socket, GameServer server) {
+		this.socket = socket;
+		this.server = server;
+		this.moves = new MoveList();
+		this.outLock = new ReentrantLock();
+	}
+
+	@Override
+	public void run() {
+		server.sessionOpened();
+		try (Socket s = socket;
+				BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+				OutputStream o = new BufferedOutputStream(s.getOutputStream())) {
+			out = o;
+			openMatch();
+			String line;
+			while ((line = in.readLine()) != null) {
+				String[] tokens = line.trim().split("\\s+");
+				boolean quit = tokens[0].equalsIgnoreCase("QUIT");
+				String reply;
+				try {
+					reply = quit ? "BYE" : handle(tokens);
+				} catch (CompletionException e) {
+					// The request failed on the shard, or the scheduler closed before running it
+					reply = "ERR " + e.getCause().getMessage();
+				} catch (UncheckedIOException e) {
+					reply = "ERR Can't host the match: " + e.getCause().getMessage();
+				}
+				if (reply != null)
+					reply(reply);
+				if (quit)
+					break;
+			}
+		} catch (IOException e) {
+			// The client went away; nothing left to answer
+		} catch (UncheckedIOException e) {
+			// The session's first match could not be hosted
+			System.err.println("Can't host a match: " + e.getCause());
+		} finally {
+			if (subscription != null)
+				subscription.cancel();
+			server.leaveMatch(matchId);
+			server.sessionClosed();
+		}
+	}
+
+	/**
+	 * Replies and spectator events share the stream, so both write under its lock. The lock is a
+	 * {@code ReentrantLock} rather than a monitor, so a virtual thread blocked on the socket doesn't pin its carrier.
+	 */
+	private void reply(String reply) throws IOException {
+		outLock.lock();
+		try {
+			out.write(reply.getBytes(StandardCharsets.UTF_8));
+			out.write('\n');
+			out.flush();
+		} finally {
+			outLock.unlock();
+		}
+	}
+
+	@Override
+	public void deliver(SpectatorEvent[] events, int count) throws IOException {
+		SpectatorHub.block(() -> {
+			outLock.lock();
+			try {
+				for (int i = 0; i < count; i++)
+					out.write(events[i].getBytes());
+				out.flush();
+			} finally {
+				outLock.unlock();
+			}
+		});
+	}
+
+	/**
+	 * Start a match of our own, playing both sides. The session keeps its previous match if hosting fails.
+	 */
+	private void openMatch() {
+		long id = server.newMatchId();
+		server.hostMatch(id, new ChessMatch(), 1);
+		matchId = id;
+		color = null;
+	}
+
+	/**
+	 * Run a request on the shard hosting our match and wait for its result.
+	 */
+	private String onMatch(Function<ChessMatch, String> request) {
+		return server.getScheduler().submit(matchId, request).join();
+	}
+
+	private String handle(String[] tokens) throws IOException {
+		switch (tokens[0].toUpperCase()) {
+		case "MOVE":
+			if (tokens.length != 3)
+				return "ERR Usage: MOVE <source> <target>";
+			int source = ChessPosition.square(tokens[1]);
+			int target = ChessPosition.square(tokens[2]);
+			if (source < 0 || target < 0)
+				return "ERR " + UI.INVALID_POSITION;
+			Color player = color;
+			return onMatch(chessMatch -> {
+				if (player != null && chessMatch.getCurrentPlayer() != player)
+					return "ERR Not your turn";
+				int status = chessMatch.tryMove(source, target);
+				if (status != MoveStatus.OK)
+					return "ERR " + MoveStatus.message(status);
+				ChessPiece captured = chessMatch.getLastCapturedPiece();
+				return "OK " + (captured == null ? "-" : captured.toString()) + (chessMatch.getCheck() ? " 1" : " 0");
+			});
+		case "MOVES":
+			return onMatch(chessMatch -> {
+				chessMatch.legalMoves(moves);
+				StringBuilder sb = new StringBuilder("MOVES");
+				for (int i = 0; i < moves.size(); i++)
+					sb.append(' ').append(Move.toString(moves.get(i)));
+				return sb.toString();
+			});
+		case "BOARD":
+			return onMatch(chessMatch -> "BOARD " + chessMatch.getSnapshot());
+		case "NEW":
+			long previous = matchId;
+			openMatch();
+			server.leaveMatch(previous);
+			return "OK";
+		case "FIND":
+			Matchmaker.Seat seat = findOpponent();
+			if (seat == null)
+				return "ERR No opponent found";
+			server.leaveMatch(matchId);
+			matchId = seat.getMatchId();
+			color = seat.getColor();
+			return "MATCH " + matchId + " " + color;
+		case "RESUME":
+			if (tokens.length != 2)
+				return "ERR Usage: RESUME <match id>";
+			long resumed;
+			try {
+				resumed = Long.parseLong(tokens[1]);
+			} catch (NumberFormatException e) {
+				return "ERR No recovered match: " + tokens[1];
+			}
+			if (!server.resumeMatch(resumed))
+				return "ERR No recovered match: " + tokens[1];
+			server.leaveMatch(matchId);
+			matchId = resumed;
+			color = null;
+			return "OK";
+		case "ID":
+			return "ID " + matchId;
+		case "WATCH":
+			if (tokens.length != 2)
+				return "ERR Usage: WATCH <match id>";
+			if (subscription != null)
+				subscription.cancel();
+			// Hold the stream so the reply goes out before the first event
+			outLock.lock();
+			try {
+				try {
+					subscription = server.getSpectatorHub().subscribe(Long.parseLong(tokens[1]), this);
+				} catch (NumberFormatException e) {
+					subscription = null;
+				}
+				reply(subscription != null ? "OK" : "ERR No such match: " + tokens[1]);
+			} finally {
+				outLock.unlock();
+			}
+			return null;
+		case "UNWATCH":
+			if (subscription != null)
+				subscription.cancel();
+			subscription = null;
+			return "OK";
+		default:
+			return "ERR Unknown command: " + tokens[0];
+		}
+	}
+
+	/**
+	 * @return Our seat in a new match, or {@code null} if no opponent showed up in time
+	 */
+	private Matchmaker.Seat findOpponent() {
+		CompletableFuture<Matchmaker.Seat> request = server.getMatchmaker().find();
+		try {
+			return request.get(FIND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		} catch (TimeoutException e) {
+			if (server.getMatchmaker().cancel(request))
+				return null;
+			return request.join(); // Paired just as the wait ran out
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			server.getMatchmaker().cancel(request);
+			return null;
+		} catch (ExecutionException e) {
+			return null;
+		}
+	}
+}
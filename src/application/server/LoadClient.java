@@ -0,0 +1,103 @@
+package application.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives N simulated players against a {@code GameServer}. Each player holds one connection and plays random legal
+ * moves for both sides, starting a new match whenever the side to move has none. Reports the number of players that
+ * connected, move throughput and {@code MOVE} round-trip latency percentiles.
+ * <p>
+ * Usage: {@code LoadClient [host] [port] [players] [moves per player]}
+ */
+public class LoadClient {
+
+	public static void main(String[] args) throws InterruptedException {
+		String host = args.length > 0 ? args[0] : "localhost";
+		int port = args.length > 1 ? Integer.parseInt(args[1]) : GameServer.DEFAULT_PORT;
+		int players = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+		int movesPerPlayer = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+
+		long[][] latencies = new long[players][];
+		AtomicInteger connected = new AtomicInteger();
+		AtomicInteger failed = new AtomicInteger();
+		CountDownLatch done = new CountDownLatch(players);
+		ExecutorService executor = SessionThreads.newThreadPerTaskExecutor();
+
+		long start = System.nanoTime();
+		for (int i = 0; i < players; i++) {
+			int player = i;
+			executor.execute(() -> {
+				try {
+					latencies[player] = play(host, port, movesPerPlayer, connected);
+				} catch (IOException e) {
+					failed.incrementAndGet();
+				} finally {
+					done.countDown();
+				}
+			});
+		}
+		done.await();
+		long elapsed = System.nanoTime() - start;
+		executor.shutdown();
+
+		long[] all = Arrays.stream(latencies).filter(x -> x != null).flatMapToLong(Arrays::stream).sorted().toArray();
+		System.out.println("Players connected: " + connected.get() + " of " + players + " (" + failed.get() + " failed)");
+		System.out.printf("Moves: %d in %.1f s (%.0f moves/s)%n", all.length, elapsed / 1e9, all.length * 1e9 / elapsed);
+		if (all.length > 0)
+			System.out.printf("MOVE latency us: p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f%n", percentile(all, 50),
+					percentile(all, 90), percentile(all, 99), percentile(all, 99.9), all[all.length - 1] / 1e3);
+	}
+
+	private static long[] play(String host, int port, int moves, AtomicInteger connected) throws IOException {
+		long[] latencies = new long[moves];
+		try (Socket socket = new Socket(host, port);
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+			socket.setTcpNoDelay(true);
+			connected.incrementAndGet();
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			int played = 0;
+			while (played < moves) {
+				String[] legal = request(in, out, "MOVES").split(" ");
+				if (legal.length == 1) {
+					request(in, out, "NEW");
+					continue;
+				}
+				String move = legal[1 + random.nextInt(legal.length - 1)];
+				long start = System.nanoTime();
+				String reply = request(in, out, "MOVE " + move.substring(0, 2) + " " + move.substring(2));
+				latencies[played++] = System.nanoTime() - start;
+				if (!reply.startsWith("OK"))
+					throw new IOException("Legal move rejected: " + move + " -> " + reply);
+			}
+			request(in, out, "QUIT");
+		}
+		return latencies;
+	}
+
+	private static String request(BufferedReader in, Writer out, String line) throws IOException {
+		out.write(line);
+		out.write('\n');
+		out.flush();
+		String reply = in.readLine();
+		if (reply == null)
+			throw new IOException("Connection closed by server");
+		return reply;
+	}
+
+	private static double percentile(long[] sorted, double percentile) {
+		int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e3;
+	}
+}
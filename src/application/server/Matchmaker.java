@@ -0,0 +1,97 @@
+package application.server;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+import chess.ChessMatch;
+import chess.Color;
+
+/**
+ * Pairs players looking for an opponent, in arrival order. The first of each pair plays white. The new match is
+ * hosted on the {@link ShardScheduler} and published on the {@link SpectatorHub}. Only the pairing holds the lock;
+ * hosting, which may write the match's journal, runs outside it so other players are never held up by that I/O.
+ */
+public class Matchmaker {
+
+	private GameServer server;
+	private ReentrantLock lock;
+	private CompletableFuture<Seat> waiting; // Guarded by lock
+
+	public Matchmaker(GameServer server) {
+		this.server = server;
+		this.lock = new ReentrantLock();
+	}
+
+	/**
+	 * Ask for an opponent.
+	 * @return A future completed with the player's seat once an opponent is found
+	 */
+	public CompletableFuture<Seat> find() {
+		while (true) {
+			CompletableFuture<Seat> first;
+			lock.lock();
+			try {
+				if (waiting == null || waiting.isDone()) {
+					waiting = new CompletableFuture<Seat>();
+					return waiting;
+				}
+				first = waiting;
+				waiting = null;
+			} finally {
+				lock.unlock();
+			}
+
+			// Host the match before either player learns its id
+			long matchId = server.newMatchId();
+			try {
+				server.hostMatch(matchId, new ChessMatch(), 2);
+			} catch (RuntimeException e) {
+				first.completeExceptionally(e);
+				throw e;
+			}
+			if (first.complete(new Seat(matchId, Color.WHITE)))
+				return CompletableFuture.completedFuture(new Seat(matchId, Color.BLACK));
+			// The first player cancelled while we were hosting: end the match for both seats and look again
+			server.leaveMatch(matchId);
+			server.leaveMatch(matchId);
+		}
+	}
+
+	/**
+	 * Stop waiting for an opponent.
+	 * @param request a future returned by {@link #find()}
+	 * @return {@code true} if the request was still waiting
+	 */
+	public boolean cancel(CompletableFuture<Seat> request) {
+		lock.lock();
+		try {
+			if (waiting == request)
+				waiting = null;
+			return request.cancel(false);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * A player's place in a match.
+	 */
+	public static class Seat {
+
+		private long matchId;
+		private Color color;
+
+		public Seat(long matchId, Color color) {
+			this.matchId = matchId;
+			this.color = color;
+		}
+
+		public long getMatchId() {
+			return matchId;
+		}
+
+		public Color getColor() {
+			return color;
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package application.server;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the executors that run one thread per session.
+ */
+public final class SessionThreads {
+
+	private SessionThreads() {
+	}
+
+	/**
+	 * Get an executor that starts a new thread for each task. It uses virtual threads when the running JVM provides
+	 * them (Java 21 and later) and falls back to a cached pool of platform threads otherwise. The lookup is
+	 * reflective because the project still compiles for Java 17.
+	 * @return A thread-per-task {@code ExecutorService}
+	 */
+	public static ExecutorService newThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+
+	public static boolean virtualThreadsAvailable() {
+		try {
+			Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,339 @@
+package application.server;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import chess.ChessMatch;
+
+/**
+ * Runs every hosted {@code ChessMatch} on one of a fixed set of shards, each a single thread, so a match is only
+ * ever touched by one thread at a time and needs no locking. Requests are routed by match id to the match's
+ * mailbox; a match with pending requests is queued on its shard, which runs a bounded batch of them before moving
+ * on to the next match.
+ * <p>
+ * Matches are placed on the shard hosting the fewest. Every {@link #REBALANCE_MILLIS} the requests run per shard
+ * are compared, and when one shard ran more than {@link #HOT_FACTOR} times the average, its busiest matches move to
+ * the least busy shard for as long as each move narrows the gap between the two. A move only takes effect the next
+ * time the match is queued, and the mailbox's scheduled flag guarantees the match never runs on two shards at once.
+ * Placing, moving and releasing a match all hold the placement lock, so each shard's match count always matches
+ * the mailboxes assigned to it.
+ */
+public class ShardScheduler implements Closeable {
+
+	public static final long REBALANCE_MILLIS = 1000;
+	public static final double HOT_FACTOR = 1.5;
+
+	private static final int BATCH = 16;
+
+	private Shard[] shards;
+	private ConcurrentHashMap<Long, Mailbox> mailboxes;
+	private ReentrantLock placement;
+	private Thread rebalancer;
+	private volatile boolean closed;
+
+	/**
+	 * @param shards number of shards, typically one per core
+	 */
+	public ShardScheduler(int shards) {
+		this.shards = new Shard[shards];
+		for (int i = 0; i < shards; i++)
+			this.shards[i] = new Shard(i);
+		this.mailboxes = new ConcurrentHashMap<Long, Mailbox>();
+		this.placement = new ReentrantLock();
+		this.rebalancer = new Thread(this::rebalanceLoop, "shard-rebalancer");
+		this.rebalancer.setDaemon(true);
+		this.rebalancer.start();
+	}
+
+	/**
+	 * Host a match on the least loaded shard.
+	 * @param matchId match identifier
+	 * @param chessMatch A {@code ChessMatch} object, which must not be used directly afterwards
+	 * @param players number of {@link #release(long)} calls that end the match
+	 */
+	public void register(long matchId, ChessMatch chessMatch, int players) {
+		placement.lock();
+		try {
+			Shard shard = shards[0];
+			for (Shard s : shards)
+				if (s.matches.get() < shard.matches.get())
+					shard = s;
+			Mailbox mailbox = new Mailbox(chessMatch, shard, players);
+			if (mailboxes.putIfAbsent(matchId, mailbox) != null)
+				throw new IllegalStateException("Match " + matchId + " is already hosted.");
+			shard.matches.incrementAndGet();
+		} finally {
+			placement.unlock();
+		}
+	}
+
+	/**
+	 * Drop one player from a match, and the match itself when it was the last.
+	 * @param matchId match identifier
+	 * @return {@code true} if the match was removed
+	 */
+	public boolean release(long matchId) {
+		Mailbox mailbox = mailboxes.get(matchId);
+		if (mailbox == null || mailbox.players.decrementAndGet() > 0)
+			return false;
+		placement.lock();
+		try {
+			mailboxes.remove(matchId);
+			mailbox.shard.matches.decrementAndGet();
+		} finally {
+			placement.unlock();
+		}
+		return true;
+	}
+
+	/**
+	 * Run {@code task} on the match's shard, after every request submitted for the match before it.
+	 * @param matchId match identifier
+	 * @param task request to run against the match
+	 * @return A future completed with the task's result, or exceptionally with what it threw, or with a
+	 *         {@code RejectedExecutionException} if the scheduler is closed before the task runs
+	 * @throws IllegalArgumentException if the match is not hosted
+	 */
+	public <T> CompletableFuture<T> submit(long matchId, Function<ChessMatch, T> task) {
+		Mailbox mailbox = mailboxes.get(matchId);
+		if (mailbox == null)
+			throw new IllegalArgumentException("No such match: " + matchId);
+		if (closed)
+			return CompletableFuture.failedFuture(closedException());
+		Request<T> request = new Request<T>(task);
+		mailbox.requests.add(request);
+		if (closed) // close() may have drained the mailbox before our add
+			rejectPending(mailbox);
+		else if (mailbox.scheduled.compareAndSet(false, true))
+			mailbox.shard.ready.add(mailbox);
+		return request.future;
+	}
+
+	/**
+	 * @return The shard index of a match, or {@code -1} if it is not hosted
+	 */
+	public int shardOf(long matchId) {
+		Mailbox mailbox = mailboxes.get(matchId);
+		return mailbox == null ? -1 : mailbox.shard.index;
+	}
+
+	public int getShards() {
+		return shards.length;
+	}
+
+	/**
+	 * @param shard shard index
+	 * @return The metrics of one shard
+	 */
+	public ShardStats getStats(int shard) {
+		Shard s = shards[shard];
+		return new ShardStats(shard, s.matches.get(), s.ready.size(), s.executed, s.latency.clone(), s.moved);
+	}
+
+	/**
+	 * Stop the shards. Requests that haven't started are completed exceptionally with a
+	 * {@code RejectedExecutionException}, so nobody waits on them forever.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		rebalancer.interrupt();
+		for (Shard shard : shards)
+			shard.thread.interrupt();
+		for (Mailbox mailbox : mailboxes.values())
+			rejectPending(mailbox);
+		// Released matches are no longer in the map but may still be queued on a shard
+		for (Shard shard : shards)
+			for (Mailbox mailbox : shard.ready)
+				rejectPending(mailbox);
+	}
+
+	private static void rejectPending(Mailbox mailbox) {
+		Request<?> request;
+		while ((request = mailbox.requests.poll()) != null)
+			request.future.completeExceptionally(closedException());
+	}
+
+	private static RejectedExecutionException closedException() {
+		return new RejectedExecutionException("The scheduler is closed.");
+	}
+
+	private void rebalanceLoop() {
+		long[] last = new long[shards.length];
+		while (!closed) {
+			try {
+				Thread.sleep(REBALANCE_MILLIS);
+			} catch (InterruptedException e) {
+				return;
+			}
+			rebalance(last);
+		}
+	}
+
+	/**
+	 * Move matches from the busiest shard to the least busy one, based on the requests each ran since the last call.
+	 */
+	private void rebalance(long[] last) {
+		// Sample every mailbox on every call, so its load covers the same interval as the shard loads below
+		for (Mailbox mailbox : mailboxes.values()) {
+			long executed = mailbox.executed;
+			mailbox.recentLoad = executed - mailbox.lastExecuted;
+			mailbox.lastExecuted = executed;
+		}
+
+		long[] load = new long[shards.length];
+		long total = 0;
+		int hot = 0;
+		int cold = 0;
+		for (int i = 0; i < shards.length; i++) {
+			long executed = shards[i].executed;
+			load[i] = executed - last[i];
+			last[i] = executed;
+			total += load[i];
+			if (load[i] > load[hot])
+				hot = i;
+			if (load[i] < load[cold])
+				cold = i;
+		}
+		double average = (double) total / shards.length;
+		if (hot == cold || load[hot] <= HOT_FACTOR * average)
+			return;
+
+		// Under the placement lock, so a match released meanwhile is neither moved nor counted twice
+		placement.lock();
+		try {
+			List<Mailbox> candidates = new ArrayList<Mailbox>();
+			for (Mailbox mailbox : mailboxes.values())
+				if (mailbox.shard == shards[hot])
+					candidates.add(mailbox);
+			candidates.sort((a, b) -> Long.compare(b.recentLoad, a.recentLoad));
+			long hotLoad = load[hot];
+			long coldLoad = load[cold];
+			for (int i = 0; i < candidates.size() - 1; i++) {
+				Mailbox mailbox = candidates.get(i);
+				// Only moves that leave both shards below the hot shard's current load
+				if (mailbox.recentLoad == 0 || coldLoad + mailbox.recentLoad >= hotLoad - mailbox.recentLoad)
+					continue;
+				mailbox.shard = shards[cold];
+				shards[hot].matches.decrementAndGet();
+				shards[cold].matches.incrementAndGet();
+				shards[hot].moved++;
+				hotLoad -= mailbox.recentLoad;
+				coldLoad += mailbox.recentLoad;
+			}
+		} finally {
+			placement.unlock();
+		}
+	}
+
+	private static class Request<T> {
+
+		private Function<ChessMatch, T> task;
+		private CompletableFuture<T> future;
+		private long enqueuedNanos;
+
+		private Request(Function<ChessMatch, T> task) {
+			this.task = task;
+			this.future = new CompletableFuture<T>();
+			this.enqueuedNanos = System.nanoTime();
+		}
+
+		private void run(ChessMatch chessMatch) {
+			try {
+				future.complete(task.apply(chessMatch));
+			} catch (RuntimeException e) {
+				future.completeExceptionally(e);
+			} catch (Error e) {
+				// Fail this request only; the shard keeps serving its other matches
+				future.completeExceptionally(e);
+				System.err.println(Thread.currentThread().getName() + ": request failed with " + e);
+			}
+		}
+	}
+
+	private static class Mailbox {
+
+		private ChessMatch chessMatch;
+		private volatile Shard shard;
+		private AtomicInteger players;
+		private ConcurrentLinkedQueue<Request<?>> requests;
+		private AtomicBoolean scheduled;
+
+		// Written by the running shard, read by the rebalancer
+		private volatile long executed;
+		private long lastExecuted;
+		private long recentLoad;
+
+		private Mailbox(ChessMatch chessMatch, Shard shard, int players) {
+			this.chessMatch = chessMatch;
+			this.shard = shard;
+			this.players = new AtomicInteger(players);
+			this.requests = new ConcurrentLinkedQueue<Request<?>>();
+			this.scheduled = new AtomicBoolean();
+		}
+	}
+
+	private class Shard {
+
+		private int index;
+		private Thread thread;
+		private LinkedBlockingQueue<Mailbox> ready;
+		private AtomicInteger matches;
+
+		// Written by the shard thread only
+		private volatile long executed;
+		private long[] latency;
+
+		// Written by the rebalancer only
+		private volatile long moved;
+
+		private Shard(int index) {
+			this.index = index;
+			this.ready = new LinkedBlockingQueue<Mailbox>();
+			this.matches = new AtomicInteger();
+			this.latency = new long[ShardStats.LATENCY_BUCKETS];
+			this.thread = new Thread(this::run, "shard-" + index);
+			this.thread.setDaemon(true);
+			this.thread.start();
+		}
+
+		private void run() {
+			while (!closed) {
+				Mailbox mailbox;
+				try {
+					mailbox = ready.take();
+				} catch (InterruptedException e) {
+					return;
+				}
+				int count = 0;
+				Request<?> request;
+				while (count < BATCH && (request = mailbox.requests.poll()) != null) {
+					latency[ShardStats.bucket(System.nanoTime() - request.enqueuedNanos)]++;
+					request.run(mailbox.chessMatch);
+					count++;
+				}
+				mailbox.executed += count;
+				executed += count;
+
+				if (!mailbox.requests.isEmpty()) {
+					mailbox.shard.ready.add(mailbox);
+					continue;
+				}
+				mailbox.scheduled.set(false);
+				// A request added after the poll above may have seen scheduled still set
+				if (!mailbox.requests.isEmpty() && mailbox.scheduled.compareAndSet(false, true))
+					mailbox.shard.ready.add(mailbox);
+			}
+		}
+	}
+}
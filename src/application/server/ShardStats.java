@@ -0,0 +1,83 @@
+package application.server;
+
+/**
+ * A point-in-time view of one {@link ShardScheduler} shard. Queueing latency, from a request's submission to the
+ * start of its run, is kept in power-of-two nanosecond buckets, so percentiles are exact to within a factor of two.
+ */
+public class ShardStats {
+
+	static final int LATENCY_BUCKETS = 40;
+
+	private int shard;
+	private int matches;
+	private int queueDepth;
+	private long executed;
+	private long[] latency;
+	private long moved;
+
+	ShardStats(int shard, int matches, int queueDepth, long executed, long[] latency, long moved) {
+		this.shard = shard;
+		this.matches = matches;
+		this.queueDepth = queueDepth;
+		this.executed = executed;
+		this.latency = latency;
+		this.moved = moved;
+	}
+
+	static int bucket(long nanos) {
+		return Math.min(LATENCY_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(nanos, 1)));
+	}
+
+	public int getShard() {
+		return shard;
+	}
+
+	public int getMatches() {
+		return matches;
+	}
+
+	/**
+	 * @return The number of matches waiting for the shard with pending requests
+	 */
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+
+	public long getExecuted() {
+		return executed;
+	}
+
+	/**
+	 * @return The number of matches the rebalancer moved off this shard
+	 */
+	public long getMoved() {
+		return moved;
+	}
+
+	/**
+	 * @param percentile percentile, 0 to 100
+	 * @return The upper bound in nanoseconds of the queueing latency bucket holding the percentile, {@code 0} if no
+	 *         request ran yet
+	 */
+	public long getLatencyPercentile(double percentile) {
+		long total = 0;
+		for (long count : latency)
+			total += count;
+		if (total == 0)
+			return 0;
+		long rank = (long) Math.ceil(percentile / 100.0 * total);
+		long seen = 0;
+		for (int i = 0; i < latency.length; i++) {
+			seen += latency[i];
+			if (seen >= rank)
+				return 1L << i;
+		}
+		return 1L << (latency.length - 1);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("shard %d: %d matches, queue %d, %d requests, moved %d, latency p50 <%.1f us p99 <%.1f us",
+				shard, matches, queueDepth, executed, moved, getLatencyPercentile(50) / 1e3, getLatencyPercentile(99) / 1e3);
+	}
+}
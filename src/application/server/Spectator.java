@@ -0,0 +1,25 @@
+package application.server;
+
+import java.io.IOException;
+
+/**
+ * Receives the events of a watched match from a {@link SpectatorHub}. Events arrive in batches, on a delivery
+ * thread, never concurrently for one spectator.
+ */
+public interface Spectator {
+
+	/**
+	 * @param events events in publication order; only the first {@code count} are valid. The array is reused after
+	 *            this call returns, and the events are shared with every other spectator, so neither may be kept
+	 *            or modified.
+	 * @param count number of events
+	 * @throws IOException to cancel the subscription
+	 */
+	void deliver(SpectatorEvent[] events, int count) throws IOException;
+
+	/**
+	 * The subscription ended, because it was cancelled, delivery failed or the match closed.
+	 */
+	default void closed() {
+	}
+}
@@ -0,0 +1,60 @@
+package application.server;
+
+import java.nio.charset.StandardCharsets;
+
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Move;
+
+/**
+ * One update of a watched match, encoded once and shared by every spectator. Each event carries the whole position,
+ * so a spectator that falls behind only needs the latest one. Encoding, one ASCII line:
+ * <p>
+ * {@code EVENT <match id> <turn> <move or -> <captured piece or -> <check 0 or 1> <board>}
+ * <p>
+ * where the board is 64 characters from a8 to h1 as in the {@code BOARD} reply, and the move is {@code -} for the
+ * position a spectator receives when it starts watching or after a takeback. {@code END <match id>} is sent once
+ * when the match closes.
+ */
+public final class SpectatorEvent {
+
+	private final byte[] bytes;
+	private final long publishedNanos;
+
+	private SpectatorEvent(String line) {
+		this.bytes = line.getBytes(StandardCharsets.US_ASCII);
+		this.publishedNanos = System.nanoTime();
+	}
+
+	static SpectatorEvent position(long matchId, ChessMatch chessMatch, int move, ChessPiece capturedPiece) {
+		StringBuilder sb = new StringBuilder(96);
+		sb.append("EVENT ").append(matchId).append(' ').append(chessMatch.getTurn()).append(' ');
+		sb.append(move == Move.NONE ? "-" : Move.toString(move)).append(' ');
+		sb.append(capturedPiece == null ? "-" : capturedPiece.toString()).append(' ');
+		sb.append(chessMatch.getCheck() ? '1' : '0').append(' ');
+		sb.append(chessMatch.getSnapshot()).append('\n');
+		return new SpectatorEvent(sb.toString());
+	}
+
+	static SpectatorEvent end(long matchId) {
+		return new SpectatorEvent("END " + matchId + "\n");
+	}
+
+	/**
+	 * @return The encoded line, including its {@code '\n'}. Shared, so it must not be modified.
+	 */
+	public byte[] getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * @return {@code System.nanoTime()} when the event was published
+	 */
+	public long getPublishedNanos() {
+		return publishedNanos;
+	}
+
+	public boolean isEnd() {
+		return bytes[0] == 'E' && bytes[1] == 'N';
+	}
+}
@@ -0,0 +1,328 @@
+package application.server;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveListener;
+
+/**
+ * Publishes the moves of live matches to any number of spectators. Each move is encoded once into a
+ * {@link SpectatorEvent} shared by every subscriber of the match, and handed to each subscription's bounded queue.
+ * A subscription drains its queue on the delivery pool, in one batch per wake-up, so idle spectators hold no
+ * thread. The pool is a {@code ForkJoinPool}, where waking a subscription costs a work-queue push rather than a
+ * thread handoff; spectators that may block, such as socket writers, do so through {@link #block(Blocking)}. When
+ * a slow spectator's queue is full, the queued events are dropped in favour of the new one: since every event
+ * carries the whole position, the spectator skips straight to the latest position instead of working through a
+ * backlog.
+ */
+public class SpectatorHub {
+
+	public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+	private ExecutorService delivery;
+	private int queueCapacity;
+	private ConcurrentHashMap<Long, Topic> topics;
+
+	private LongAdder published;
+	private LongAdder delivered;
+	private LongAdder coalesced;
+
+	public SpectatorHub() {
+		this(new ForkJoinPool(Runtime.getRuntime().availableProcessors(), ForkJoinPool.defaultForkJoinWorkerThreadFactory,
+				null, true), DEFAULT_QUEUE_CAPACITY);
+	}
+
+	/**
+	 * @param delivery executor that runs the delivery batches
+	 * @param queueCapacity events queued per spectator before older ones are dropped
+	 */
+	public SpectatorHub(ExecutorService delivery, int queueCapacity) {
+		this.delivery = delivery;
+		this.queueCapacity = queueCapacity;
+		this.topics = new ConcurrentHashMap<Long, Topic>();
+		this.published = new LongAdder();
+		this.delivered = new LongAdder();
+		this.coalesced = new LongAdder();
+	}
+
+	/**
+	 * Start publishing the moves of a match. Publishing runs on the thread that makes each move.
+	 * @param matchId match identifier
+	 * @param chessMatch A {@code ChessMatch} object
+	 */
+	public void open(long matchId, ChessMatch chessMatch) {
+		Topic topic = new Topic(matchId, chessMatch);
+		if (topics.putIfAbsent(matchId, topic) != null)
+			throw new IllegalStateException("Match " + matchId + " is already published.");
+		chessMatch.addMoveListener(topic);
+	}
+
+	/**
+	 * Stop publishing a match. Its spectators receive a final {@code END} event.
+	 * @param matchId match identifier
+	 */
+	public void close(long matchId) {
+		Topic topic = topics.remove(matchId);
+		if (topic != null) {
+			topic.chessMatch.removeMoveListener(topic);
+			topic.publish(SpectatorEvent.end(matchId), true);
+		}
+	}
+
+	/**
+	 * Watch a match. The spectator first receives the current position.
+	 * @param matchId match identifier
+	 * @param spectator A {@code Spectator}
+	 * @return The {@code Subscription}, or {@code null} if the match is not published
+	 */
+	public Subscription subscribe(long matchId, Spectator spectator) {
+		Topic topic = topics.get(matchId);
+		if (topic == null)
+			return null;
+		Subscription subscription = new Subscription(topic, spectator);
+		synchronized (topic) {
+			// The topic may have been closed since the lookup; its spectators already got END
+			if (topic.closed)
+				return null;
+			topic.subscriptions.add(subscription);
+			subscription.offer(topic.latest, topic.sequence);
+		}
+		return subscription;
+	}
+
+	/**
+	 * Run a blocking action from {@link Spectator#deliver}, letting the delivery pool start a spare thread while it
+	 * blocks so other spectators keep being served.
+	 * @param action the blocking action
+	 * @throws IOException if the action fails
+	 */
+	public static void block(Blocking action) throws IOException {
+		ManagedAction managed = new ManagedAction(action);
+		try {
+			ForkJoinPool.managedBlock(managed);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while delivering.", e);
+		}
+		if (managed.failure != null)
+			throw managed.failure;
+	}
+
+	public int getMatches() {
+		return topics.size();
+	}
+
+	/**
+	 * @return The number of events published, counting each event once however many spectators it reaches
+	 */
+	public long getPublished() {
+		return published.sum();
+	}
+
+	/**
+	 * @return The number of events handed to spectators
+	 */
+	public long getDelivered() {
+		return delivered.sum();
+	}
+
+	/**
+	 * @return The number of queued events dropped because a newer position superseded them
+	 */
+	public long getCoalesced() {
+		return coalesced.sum();
+	}
+
+	public interface Blocking {
+		void run() throws IOException;
+	}
+
+	private static class ManagedAction implements ForkJoinPool.ManagedBlocker {
+
+		private Blocking action;
+		private boolean done;
+		private IOException failure;
+
+		private ManagedAction(Blocking action) {
+			this.action = action;
+		}
+
+		@Override
+		public boolean block() {
+			try {
+				action.run();
+			} catch (IOException e) {
+				failure = e;
+			}
+			done = true;
+			return true;
+		}
+
+		@Override
+		public boolean isReleasable() {
+			return done;
+		}
+	}
+
+	private class Topic implements MoveListener {
+
+		private long matchId;
+		private ChessMatch chessMatch;
+		private List<Subscription> subscriptions;
+
+		// Guarded by this
+		private SpectatorEvent latest;
+		private long sequence;
+		private boolean closed;
+
+		private Topic(long matchId, ChessMatch chessMatch) {
+			this.matchId = matchId;
+			this.chessMatch = chessMatch;
+			this.subscriptions = new CopyOnWriteArrayList<Subscription>();
+			this.latest = SpectatorEvent.position(matchId, chessMatch, Move.NONE, null);
+		}
+
+		@Override
+		public void moveMade(ChessMatch chessMatch, int move, ChessPiece capturedPiece) {
+			publish(SpectatorEvent.position(matchId, chessMatch, move, capturedPiece), false);
+		}
+
+		@Override
+		public void moveUndone(ChessMatch chessMatch, int move) {
+			publish(SpectatorEvent.position(matchId, chessMatch, Move.NONE, null), false);
+		}
+
+		/**
+		 * Only the latest event and a snapshot of the subscribers are taken under the lock, shared with
+		 * {@link SpectatorHub#subscribe}; the event is queued to each subscriber after it is released. Sequence
+		 * numbers let each subscription drop an event older than one it already has, so a spectator never sees an
+		 * older position after a newer one, and {@code END} is always last.
+		 */
+		private void publish(SpectatorEvent event, boolean end) {
+			Iterator<Subscription> targets;
+			long number;
+			synchronized (this) {
+				if (closed)
+					return;
+				closed = end;
+				latest = event;
+				number = ++sequence;
+				targets = subscriptions.iterator();
+			}
+			published.increment();
+			while (targets.hasNext())
+				targets.next().offer(event, number);
+		}
+	}
+
+	/**
+	 * One spectator watching one match.
+	 */
+	public class Subscription {
+
+		private Topic topic;
+		private Spectator spectator;
+
+		// Guarded by this
+		private SpectatorEvent[] queue;
+		private int head;
+		private int size;
+		private boolean scheduled;
+		private boolean cancelled;
+		private long lastSequence;
+
+		// Only touched by the running delivery batch
+		private SpectatorEvent[] batch;
+
+		private Subscription(Topic topic, Spectator spectator) {
+			this.topic = topic;
+			this.spectator = spectator;
+			this.queue = new SpectatorEvent[queueCapacity];
+			this.batch = new SpectatorEvent[queueCapacity];
+			this.lastSequence = -1;
+		}
+
+		public long getMatchId() {
+			return topic.matchId;
+		}
+
+		/**
+		 * Stop watching. Events already being delivered may still arrive.
+		 */
+		public void cancel() {
+			boolean notify;
+			synchronized (this) {
+				notify = !cancelled && !scheduled;
+				cancelled = true;
+				size = 0;
+			}
+			topic.subscriptions.remove(this);
+			if (notify)
+				spectator.closed();
+		}
+
+		private void offer(SpectatorEvent event, long sequence) {
+			synchronized (this) {
+				if (cancelled || sequence <= lastSequence)
+					return;
+				lastSequence = sequence;
+				if (size == queue.length) {
+					coalesced.add(size);
+					size = 0;
+				}
+				queue[(head + size++) % queue.length] = event;
+				if (scheduled)
+					return;
+				scheduled = true;
+			}
+			delivery.execute(this::drain);
+		}
+
+		private void drain() {
+			while (true) {
+				int count;
+				boolean end = false;
+				synchronized (this) {
+					if (cancelled || size == 0) {
+						scheduled = false;
+						if (cancelled)
+							break;
+						return;
+					}
+					for (count = 0; count < size; count++) {
+						batch[count] = queue[(head + count) % queue.length];
+						queue[(head + count) % queue.length] = null;
+					}
+					head = (head + size) % queue.length;
+					size = 0;
+				}
+				try {
+					spectator.deliver(batch, count);
+					delivered.add(count);
+					end = batch[count - 1].isEnd();
+				} catch (IOException | RuntimeException e) {
+					end = true;
+				}
+				if (end) {
+					synchronized (this) {
+						cancelled = true;
+						scheduled = false;
+						size = 0;
+					}
+					topic.subscriptions.remove(this);
+					break;
+				}
+			}
+			spectator.closed();
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package application.server;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import chess.ChessMatch;
+import chess.Move;
+import chess.MoveList;
+
+/**
+ * In-process load generator for the {@link SpectatorHub}: one match played at a fixed move rate, watched by N
+ * spectators of which a share are slow and stall on every batch, as a spectator behind a congested connection
+ * would. Delivery runs on a pool like the {@code GameServer}'s. Reports the fan-out cost per move on the playing
+ * thread, events delivered and coalesced, and publish-to-delivery latency percentiles of the fast spectators.
+ * <p>
+ * Usage: {@code SpectatorLoad [spectators] [moves] [moves per second] [slow percent]}
+ */
+public class SpectatorLoad {
+
+	public static void main(String[] args) throws InterruptedException {
+		int spectators = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		int moves = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+		int rate = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+		int slowPercent = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+
+		ForkJoinPool delivery = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+				ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+		SpectatorHub hub = new SpectatorHub(delivery, SpectatorHub.DEFAULT_QUEUE_CAPACITY);
+		ChessMatch chessMatch = new ChessMatch();
+		hub.open(1, chessMatch);
+
+		Watcher[] watchers = new Watcher[spectators];
+		for (int i = 0; i < spectators; i++) {
+			watchers[i] = new Watcher(moves + 1, i * 100L < (long) spectators * slowPercent);
+			hub.subscribe(1, watchers[i]);
+		}
+
+		MoveList legal = new MoveList();
+		long interval = 1_000_000_000L / rate;
+		long fanOut = 0;
+		long next = System.nanoTime();
+		for (int i = 0; i < moves; i++) {
+			chessMatch.legalMoves(legal);
+			if (legal.isEmpty()) {
+				chessMatch.undo(); // Keep the match going
+				continue;
+			}
+			int move = legal.get(ThreadLocalRandom.current().nextInt(legal.size()));
+			long start = System.nanoTime();
+			chessMatch.performChessMove(Move.sourcePosition(move), Move.targetPosition(move));
+			fanOut += System.nanoTime() - start;
+			next += interval;
+			LockSupport.parkNanos(next - System.nanoTime());
+		}
+		hub.close(1);
+		delivery.shutdown();
+		delivery.awaitTermination(1, TimeUnit.MINUTES);
+
+		long[] latencies = Arrays.stream(watchers).filter(x -> !x.slow).flatMapToLong(x -> Arrays.stream(x.latencies, 0, x.count))
+				.sorted().toArray();
+		System.out.printf("Spectators: %d (%d%% slow)%n", spectators, slowPercent);
+		System.out.printf("Events: %d published, %d delivered, %d coalesced%n", hub.getPublished(), hub.getDelivered(), hub.getCoalesced());
+		System.out.printf("Fan-out per move on the playing thread: %.1f us%n", fanOut / 1e3 / Math.max(1, hub.getPublished() - 1));
+		if (latencies.length > 0)
+			System.out.printf("Delivery latency us: p50 %.1f  p90 %.1f  p99 %.1f  max %.1f%n", percentile(latencies, 50),
+					percentile(latencies, 90), percentile(latencies, 99), latencies[latencies.length - 1] / 1e3);
+	}
+
+	private static double percentile(long[] sorted, double percentile) {
+		int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e3;
+	}
+
+	private static class Watcher implements Spectator {
+
+		private static final long SLOW_STALL_NANOS = 500_000_000L;
+
+		private boolean slow;
+		private long[] latencies;
+		private int count;
+
+		private Watcher(int capacity, boolean slow) {
+			this.slow = slow;
+			this.latencies = new long[capacity + 1];
+		}
+
+		@Override
+		public void deliver(SpectatorEvent[] events, int count) throws IOException {
+			long now = System.nanoTime();
+			for (int i = 0; i < count && this.count < latencies.length; i++)
+				latencies[this.count++] = now - events[i].getPublishedNanos();
+			if (slow)
+				SpectatorHub.block(() -> LockSupport.parkNanos(SLOW_STALL_NANOS));
+		}
+	}
+}
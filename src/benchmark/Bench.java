@@ -0,0 +1,126 @@
+package benchmark;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.function.LongSupplier;
+
+/**
+ * A small microbenchmark harness: runs an operation in timed batches after a warmup and reports the average time
+ * per operation together with the bytes allocated per operation and the garbage collections seen while measuring.
+ */
+public class Bench {
+
+	private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	private int warmupIterations;
+	private int iterations;
+	private long iterationNanos;
+
+	/**
+	 * Results are folded into this field so the JIT can't drop an operation whose value is never read.
+	 */
+	private volatile long sink;
+
+	public Bench(int warmupIterations, int iterations, long iterationMillis) {
+		this.warmupIterations = warmupIterations;
+		this.iterations = iterations;
+		this.iterationNanos = iterationMillis * 1_000_000L;
+	}
+
+	/**
+	 * Measure the given operation.
+	 * @param name benchmark name
+	 * @param operation operation to measure. Its result is consumed so it can't be optimized away.
+	 * @return The measured {@code Result}
+	 */
+	public Result run(String name, LongSupplier operation) {
+		for (int i = 0; i < warmupIterations; i++)
+			iteration(operation);
+
+		long ops = 0;
+		long nanos = 0;
+		long threadId = Thread.currentThread().getId();
+		long gcCount = gcCount();
+		long gcMillis = gcMillis();
+		long allocated = THREADS.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < iterations; i++) {
+			long start = System.nanoTime();
+			ops += iteration(operation);
+			nanos += System.nanoTime() - start;
+		}
+		allocated = THREADS.getThreadAllocatedBytes(threadId) - allocated;
+		return new Result(name, ops, nanos, allocated, gcCount() - gcCount, gcMillis() - gcMillis);
+	}
+
+	private long iteration(LongSupplier operation) {
+		long ops = 0;
+		long acc = 0;
+		long deadline = System.nanoTime() + iterationNanos;
+		do {
+			for (int i = 0; i < 1024; i++)
+				acc += operation.getAsLong();
+			ops += 1024;
+		} while (System.nanoTime() < deadline);
+		sink += acc;
+		return ops;
+	}
+
+	private static long gcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans())
+			count += Math.max(bean.getCollectionCount(), 0);
+		return count;
+	}
+
+	private static long gcMillis() {
+		long millis = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans())
+			millis += Math.max(bean.getCollectionTime(), 0);
+		return millis;
+	}
+
+	public static class Result {
+
+		private String name;
+		private long ops;
+		private long nanos;
+		private long allocatedBytes;
+		private long gcCount;
+		private long gcMillis;
+
+		public Result(String name, long ops, long nanos, long allocatedBytes, long gcCount, long gcMillis) {
+			this.name = name;
+			this.ops = ops;
+			this.nanos = nanos;
+			this.allocatedBytes = allocatedBytes;
+			this.gcCount = gcCount;
+			this.gcMillis = gcMillis;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public double getNanosPerOp() {
+			return (double) nanos / ops;
+		}
+
+		public double getBytesPerOp() {
+			return (double) allocatedBytes / ops;
+		}
+
+		public long getGcCount() {
+			return gcCount;
+		}
+
+		public long getGcMillis() {
+			return gcMillis;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-40s %12.1f ns/op %14.0f ops/s %10.1f B/op %6d gc %6d gc-ms", name, getNanosPerOp(),
+					1e9 / getNanosPerOp(), getBytesPerOp(), gcCount, gcMillis);
+		}
+	}
+}
@@ -0,0 +1,243 @@
+package benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import application.UI;
+import boardgame.Position;
+import chess.ChessBoard;
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Color;
+import chess.Move;
+import chess.MoveList;
+import chess.MoveStatus;
+import chess.pieces.King;
+import chess.pieces.Rook;
+
+/**
+ * Benchmarks for the {@code boardgame} and {@code chess} hot paths.
+ * <p>
+ * Match benchmarks replay a fixed set of random legal games, starting a fresh match for each game, so they walk
+ * thousands of distinct positions with a bounded move history instead of repeating a few positions the move cache
+ * already holds.
+ * <p>
+ * Options: {@code --quick} for short iterations, {@code --save <file>} to write the results, and
+ * {@code --baseline <file>} with {@code --threshold <percent>} (10 by default) to exit with status 1 when any
+ * benchmark is slower than in the baseline by more than the threshold.
+ */
+public class HotPathBenchmarks {
+
+	private static final int GAMES = 64;
+	private static final int PLIES = 160;
+	private static final int SELF_CHECKS = 256;
+	private static final long SEED = 0x5EED_C4E5_5L;
+
+	public static void main(String[] args) throws IOException {
+		boolean quick = false;
+		Path save = null;
+		Path baseline = null;
+		double threshold = 10.0;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "--quick":
+				quick = true;
+				break;
+			case "--save":
+				save = Paths.get(args[++i]);
+				break;
+			case "--baseline":
+				baseline = Paths.get(args[++i]);
+				break;
+			case "--threshold":
+				threshold = Double.parseDouble(args[++i]);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+
+		Bench bench = quick ? new Bench(2, 3, 200) : new Bench(5, 5, 1000);
+		List<Bench.Result> results = runAll(bench);
+		for (Bench.Result result : results)
+			System.out.println(result);
+
+		if (save != null)
+			save(results, save);
+		if (baseline != null && !compare(results, load(baseline), threshold))
+			System.exit(1);
+	}
+
+	private static List<Bench.Result> runAll(Bench bench) {
+		List<Bench.Result> results = new ArrayList<Bench.Result>();
+
+		ChessBoard board = new ChessBoard();
+		Rook boardRook = new Rook(board, Color.WHITE);
+		Position cell = new Position(4, 4);
+		int[] cursor = new int[1];
+		results.add(bench.run("Board.piece", () -> {
+			int square = cursor[0]++ & 63;
+			return board.piece(square >>> 3, square & 7) == null ? 0 : 1;
+		}));
+		results.add(bench.run("Board.placePiece+removePiece", () -> {
+			board.placePiece(boardRook, cell);
+			return board.removePiece(cell) == boardRook ? 1 : 0;
+		}));
+
+		ChessMatch match = new ChessMatch();
+		ChessPiece[][] pieces = match.getPieces();
+		ChessPiece rook = pieces[6][2];
+		ChessPiece king = pieces[7][3];
+		results.add(bench.run("Rook.possibleMoves", () -> rook.possibleMoves().length));
+		results.add(bench.run("Rook.possibleMovesMask", () -> rook.possibleMovesMask()));
+		results.add(bench.run("King.possibleMoves", () -> king.possibleMoves().length));
+		results.add(bench.run("King.possibleMovesMask", () -> king.possibleMovesMask()));
+
+		ChessPosition[][][] games = randomGames();
+		ChessMatch[] replay = { new ChessMatch() };
+		int[] next = new int[2];
+		results.add(bench.run("ChessMatch.performChessMove (games)", () -> {
+			if (next[1] == games[next[0]].length) {
+				next[0] = (next[0] + 1) % games.length;
+				next[1] = 0;
+				replay[0] = new ChessMatch();
+			}
+			ChessPosition[] move = games[next[0]][next[1]++];
+			return replay[0].performChessMove(move[0], move[1]) == null ? 0 : 1;
+		}));
+
+		List<ChessMatch> pinned = new ArrayList<ChessMatch>();
+		List<ChessPosition[]> pinnedMoves = new ArrayList<ChessPosition[]>();
+		selfChecks(games, pinned, pinnedMoves);
+		int[] pin = new int[1];
+		results.add(bench.run("ChessMatch.performChessMove (self-check)", () -> {
+			int i = pin[0]++ % pinned.size();
+			ChessPosition[] move = pinnedMoves.get(i);
+			try {
+				pinned.get(i).performChessMove(move[0], move[1]);
+				return 1;
+			} catch (ChessException e) {
+				return 0;
+			}
+		}));
+
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		try {
+			results.add(bench.run("UI.printBoard", () -> {
+				UI.printBoard(match.getPieces());
+				return 0;
+			}));
+		} finally {
+			System.setOut(out);
+		}
+
+		return results;
+	}
+
+	/**
+	 * @return {@value #GAMES} random legal games from the initial position, of up to {@value #PLIES} plies each, as
+	 *         source and target pairs
+	 */
+	private static ChessPosition[][][] randomGames() {
+		SplittableRandom random = new SplittableRandom(SEED);
+		MoveList moves = new MoveList();
+		ChessPosition[][][] games = new ChessPosition[GAMES][][];
+		for (int g = 0; g < GAMES; g++) {
+			ChessMatch match = new ChessMatch();
+			List<ChessPosition[]> plies = new ArrayList<ChessPosition[]>();
+			while (plies.size() < PLIES) {
+				match.legalMoves(moves);
+				if (moves.isEmpty())
+					break;
+				int move = moves.get(random.nextInt(moves.size()));
+				plies.add(new ChessPosition[] { Move.sourcePosition(move), Move.targetPosition(move) });
+				match.makeMove(move);
+			}
+			games[g] = plies.toArray(new ChessPosition[plies.size()][]);
+		}
+		return games;
+	}
+
+	/**
+	 * Collect up to {@value #SELF_CHECKS} positions from {@code games}, each with a move that would leave its own
+	 * king in check, taking at most one per position.
+	 */
+	private static void selfChecks(ChessPosition[][][] games, List<ChessMatch> matches, List<ChessPosition[]> moves) {
+		for (ChessPosition[][] game : games) {
+			ChessMatch match = new ChessMatch();
+			for (ChessPosition[] ply : game) {
+				int move = selfCheck(match);
+				if (move != Move.NONE) {
+					matches.add(new ChessMatch(match));
+					moves.add(new ChessPosition[] { Move.sourcePosition(move), Move.targetPosition(move) });
+					if (matches.size() == SELF_CHECKS)
+						return;
+				}
+				match.performChessMove(ply[0], ply[1]);
+			}
+		}
+	}
+
+	/**
+	 * @return A move of the current player that {@code match} rejects as self-check, or {@link Move#NONE}
+	 */
+	private static int selfCheck(ChessMatch match) {
+		long own = match.occupied(match.getCurrentPlayer());
+		while (own != 0) {
+			int source = Long.numberOfTrailingZeros(own);
+			for (int target = 0; target < ChessBoard.SQUARES; target++) {
+				int status = match.tryMove(source, target);
+				if (status == MoveStatus.SELF_CHECK)
+					return Move.of(source, target);
+				if (status == MoveStatus.OK)
+					match.undo();
+			}
+			own &= own - 1;
+		}
+		return Move.NONE;
+	}
+
+	private static void save(List<Bench.Result> results, Path file) throws IOException {
+		List<String> lines = new ArrayList<String>();
+		for (Bench.Result result : results)
+			lines.add(String.format("%s\t%.3f\t%.3f", result.getName(), result.getNanosPerOp(), result.getBytesPerOp()));
+		Files.write(file, lines);
+	}
+
+	private static Map<String, Double> load(Path file) throws IOException {
+		Map<String, Double> nanosPerOp = new HashMap<String, Double>();
+		for (String line : Files.readAllLines(file)) {
+			String[] fields = line.split("\t");
+			nanosPerOp.put(fields[0], Double.parseDouble(fields[1]));
+		}
+		return nanosPerOp;
+	}
+
+	private static boolean compare(List<Bench.Result> results, Map<String, Double> baseline, double threshold) {
+		boolean ok = true;
+		for (Bench.Result result : results) {
+			Double before = baseline.get(result.getName());
+			if (before == null)
+				continue;
+			double change = (result.getNanosPerOp() - before) * 100.0 / before;
+			if (change > threshold) {
+				System.out.printf("REGRESSION %s: %.1f -> %.1f ns/op (%+.1f%%)%n", result.getName(), before,
+						result.getNanosPerOp(), change);
+				ok = false;
+			}
+		}
+		return ok;
+	}
+}
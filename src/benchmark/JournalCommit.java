@@ -0,0 +1,67 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+import chess.ChessMatch;
+import chess.Move;
+import chess.MoveList;
+import chess.io.JournalManager;
+
+/**
+ * Reports what a {@code JournalManager} commit costs as the number of matches moving in the same interval grows.
+ * Each round every match plays one move, then the round waits for the commit that syncs them. Since every match has
+ * its own file, a commit syncs one file per match.
+ * <p>
+ * Usage: {@code JournalCommit [directory] [rounds]}, with the directory on the device to measure
+ */
+public class JournalCommit {
+
+	private static final int[] MATCHES = { 1, 4, 16, 64, 256 };
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		Path root = args.length > 0 ? Paths.get(args[0]) : Paths.get(System.getProperty("java.io.tmpdir"));
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+		System.out.printf("%-8s %12s %14s%n", "MATCHES", "MS/COMMIT", "US/FILE SYNC");
+		for (int matches : MATCHES) {
+			Path directory = Files.createTempDirectory(root, "journal-commit");
+			long nanos = 0;
+			try (JournalManager journals = new JournalManager(directory, 100)) {
+				ChessMatch[] chessMatches = new ChessMatch[matches];
+				for (int i = 0; i < matches; i++) {
+					chessMatches[i] = new ChessMatch();
+					journals.attach(Integer.toString(i), chessMatches[i]);
+				}
+				SplittableRandom random = new SplittableRandom(matches);
+				MoveList moves = new MoveList();
+				for (int round = 0; round < rounds; round++) {
+					for (ChessMatch chessMatch : chessMatches) {
+						chessMatch.legalMoves(moves);
+						if (moves.isEmpty()) {
+							while (chessMatch.canUndo())
+								chessMatch.undo();
+							chessMatch.legalMoves(moves);
+						}
+						int move = moves.get(random.nextInt(moves.size()));
+						chessMatch.tryMove(Move.source(move), Move.target(move));
+					}
+					long start = System.nanoTime();
+					journals.sync();
+					nanos += System.nanoTime() - start;
+				}
+			} finally {
+				try (Stream<Path> files = Files.list(directory)) {
+					for (Path file : (Iterable<Path>) files::iterator)
+						Files.delete(file);
+				}
+				Files.delete(directory);
+			}
+			System.out.printf("%-8d %12.2f %14.1f%n", matches, nanos / 1e6 / rounds, nanos / 1e3 / rounds / matches);
+		}
+	}
+}
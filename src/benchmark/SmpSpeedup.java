@@ -0,0 +1,63 @@
+package benchmark;
+
+import chess.ChessMatch;
+import chess.ChessPosition;
+import chess.engine.LazySmpSearch;
+import chess.engine.ReplacementPolicy;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+
+/**
+ * Reports the time-to-depth speedup of {@code LazySmpSearch} with 1, 2, 4 and 8 threads over a fixed position suite.
+ * Every run starts from an empty transposition table.
+ * <p>
+ * Usage: {@code SmpSpeedup [depth] [table megabytes]}
+ */
+public class SmpSpeedup {
+
+	private static final String[] SUITE = {
+			"",
+			"c2a2 c7a7",
+			"e2e6 e7e6",
+			"d2d7 d8d7",
+			"c1a1 c8a8 e1h1 e8h8",
+			"c2a2 c7a7 a2a7 e7e2 e1e2 c8c1",
+	};
+
+	private static final int[] THREADS = { 1, 2, 4, 8 };
+
+	public static void main(String[] args) throws InterruptedException {
+		int depth = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+		int megabytes = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+
+		System.out.println("Depth " + depth + ", " + SUITE.length + " positions, " + Runtime.getRuntime().availableProcessors()
+				+ " processors");
+		System.out.printf("%-8s %10s %14s %14s %8s%n", "THREADS", "MS", "NODES", "NODES/S", "SPEEDUP");
+		double baseline = 0;
+		for (int threads : THREADS) {
+			long nodes = 0;
+			long nanos = 0;
+			for (String line : SUITE) {
+				LazySmpSearch search = new LazySmpSearch(threads, new TranspositionTable(megabytes, ReplacementPolicy.DEPTH_PREFERRED));
+				SearchResult result = search.search(play(line), depth, 0);
+				nodes += result.getNodes();
+				nanos += result.getElapsedNanos();
+			}
+			if (threads == 1)
+				baseline = nanos;
+			System.out.printf("%-8d %10d %14d %14.0f %8.2f%n", threads, nanos / 1_000_000, nodes, nodes * 1e9 / Math.max(nanos, 1),
+					baseline / Math.max(nanos, 1));
+		}
+	}
+
+	private static ChessMatch play(String line) {
+		ChessMatch match = new ChessMatch();
+		for (String move : line.split(" ")) {
+			if (move.isEmpty())
+				continue;
+			match.performChessMove(new ChessPosition(move.charAt(0), move.charAt(1) - '0'),
+					new ChessPosition(move.charAt(2), move.charAt(3) - '0'));
+		}
+		return match;
+	}
+}
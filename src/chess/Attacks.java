@@ -0,0 +1,140 @@
+package chess;
+
+/**
+ * Precomputed attack tables, built once at class load. King attacks are a plain per-square lookup; rook attacks
+ * use magic bitboards, so a sliding lookup costs a mask, a multiply, a shift and one table read.
+ * <p>
+ * Squares are indexed as in {@link ChessBoard#square(int, int)}, so bit 0 is a8 and bit 63 is h1.
+ */
+public final class Attacks {
+
+	private static final long[] KING = new long[ChessBoard.SQUARES];
+
+	private static final long[] ROOK_MASKS = new long[ChessBoard.SQUARES];
+	private static final long[] ROOK_MAGICS = {
+		0x0480028060400412L, 0x0040004010002000L, 0x1080098210012000L, 0x0080080080100004L,
+		0x8900080005000210L, 0x0200020018740150L, 0x0400041000880102L, 0x0200024421028402L,
+		0x0404800240008230L, 0x0001002040010080L, 0x4001004010200100L, 0x8804800804100082L,
+		0x2809000501100801L, 0x6042000804100200L, 0x4014000108040210L, 0x4082000102008044L,
+		0x548000C000200040L, 0x0490094008412000L, 0x0082020014224080L, 0x0090008013810800L,
+		0x0005010010080004L, 0x1002008080020400L, 0x4008840002081001L, 0x0848820004008041L,
+		0x0000802080004010L, 0x00C0088100204902L, 0x400A008200144020L, 0x0400100080080084L,
+		0x0200040080080080L, 0x0002000200100408L, 0x0040040101000200L, 0x441002C20000A50CL,
+		0xC0C0804202002100L, 0x9400401001402000L, 0x0005218602001140L, 0x0800220012000840L,
+		0x0019008010022040L, 0x0012000802000410L, 0x2002000812002409L, 0x00508001D1802100L,
+		0x0000400080008025L, 0x0040043008022000L, 0x0140100020008080L, 0x0220201001010008L,
+		0x8008020004004040L, 0x1042000408020010L, 0x4009840200010100L, 0x800004E284020011L,
+		0x0280002050810100L, 0x9000804005142100L, 0x0382082010804200L, 0x4404201000090100L,
+		0x2824000408028080L, 0x8282000400028080L, 0x0000821001480400L, 0x00A010C404852200L,
+		0x0104150080042041L, 0x0008230410824003L, 0x200302429088A001L, 0x0250082185005001L,
+		0x2001001008000205L, 0x6809000204000801L, 0x0004290240881004L, 0x0800083100840042L
+	};
+	private static final int[] ROOK_SHIFTS = new int[ChessBoard.SQUARES];
+	private static final long[][] ROOK = new long[ChessBoard.SQUARES][];
+
+	private static final int[] ROOK_ROW_STEPS = { -1, 0, 0, 1 };
+	private static final int[] ROOK_COLUMN_STEPS = { 0, -1, 1, 0 };
+
+	static {
+		for (int sq = 0; sq < ChessBoard.SQUARES; sq++)
+			KING[sq] = kingAttacks(sq);
+
+		for (int sq = 0; sq < ChessBoard.SQUARES; sq++)
+			initRook(sq);
+	}
+
+	private Attacks() {
+	}
+
+	/**
+	 * @param square king square index (0 to 63)
+	 * @return A bitboard with every square a king on {@code square} attacks
+	 */
+	public static long king(int square) {
+		return KING[square];
+	}
+
+	/**
+	 * @param square rook square index (0 to 63)
+	 * @param occupied bitboard of every occupied square
+	 * @return A bitboard with every square a rook on {@code square} attacks, including the first blocker on each ray
+	 */
+	public static long rook(int square, long occupied) {
+		return ROOK[square][(int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+	}
+
+	private static long kingAttacks(int sq) {
+		long attacks = 0L;
+		int row = ChessBoard.row(sq);
+		int column = ChessBoard.column(sq);
+		for (int dr = -1; dr <= 1; dr++)
+			for (int dc = -1; dc <= 1; dc++)
+				if ((dr != 0 || dc != 0) && onBoard(row + dr, column + dc))
+					attacks |= 1L << ChessBoard.square(row + dr, column + dc);
+		return attacks;
+	}
+
+	private static void initRook(int sq) {
+		long mask = rookRelevantMask(sq);
+		int bits = Long.bitCount(mask);
+		int shift = 64 - bits;
+		long[] table = new long[1 << bits];
+
+		long subset = 0L;
+		do {
+			int index = (int) ((subset * ROOK_MAGICS[sq]) >>> shift);
+			long attacks = slowRookAttacks(sq, subset);
+			if (table[index] != 0L && table[index] != attacks)
+				throw new IllegalStateException("Rook magic for square " + sq + " has a destructive collision.");
+			table[index] = attacks;
+			subset = (subset - mask) & mask; // Carry-rippler: next subset of mask
+		} while (subset != 0L);
+
+		ROOK_MASKS[sq] = mask;
+		ROOK_SHIFTS[sq] = shift;
+		ROOK[sq] = table;
+	}
+
+	/**
+	 * Every square a rook ray passes through from {@code sq}, except the last square before the edge, since a piece
+	 * there can never block anything further.
+	 */
+	private static long rookRelevantMask(int sq) {
+		long mask = 0L;
+		int row = ChessBoard.row(sq);
+		int column = ChessBoard.column(sq);
+		for (int i = 0; i < ROOK_ROW_STEPS.length; i++) {
+			int r = row + ROOK_ROW_STEPS[i];
+			int c = column + ROOK_COLUMN_STEPS[i];
+			while (onBoard(r + ROOK_ROW_STEPS[i], c + ROOK_COLUMN_STEPS[i])) {
+				mask |= 1L << ChessBoard.square(r, c);
+				r += ROOK_ROW_STEPS[i];
+				c += ROOK_COLUMN_STEPS[i];
+			}
+		}
+		return mask;
+	}
+
+	private static long slowRookAttacks(int sq, long occupied) {
+		long attacks = 0L;
+		int row = ChessBoard.row(sq);
+		int column = ChessBoard.column(sq);
+		for (int i = 0; i < ROOK_ROW_STEPS.length; i++) {
+			int r = row + ROOK_ROW_STEPS[i];
+			int c = column + ROOK_COLUMN_STEPS[i];
+			while (onBoard(r, c)) {
+				long bit = 1L << ChessBoard.square(r, c);
+				attacks |= bit;
+				if ((occupied & bit) != 0)
+					break;
+				r += ROOK_ROW_STEPS[i];
+				c += ROOK_COLUMN_STEPS[i];
+			}
+		}
+		return attacks;
+	}
+
+	private static boolean onBoard(int row, int column) {
+		return row >= 0 && row < ChessBoard.SIZE && column >= 0 && column < ChessBoard.SIZE;
+	}
+}
@@ -0,0 +1,201 @@
+package chess;
+
+import java.util.Arrays;
+
+import boardgame.Board;
+import boardgame.BoardException;
+import boardgame.Piece;
+import boardgame.Position;
+
+/**
+ * An 8x8 {@code Board} that mirrors its piece placement into bitboards: one {@code long} per color and piece type,
+ * where bit {@code row * 8 + column} is set when that cell holds such a piece.
+ */
+public class ChessBoard extends Board {
+
+	public static final int SIZE = 8;
+	public static final int SQUARES = SIZE * SIZE;
+
+	private static final int COLORS = Color.values().length;
+	private static final int TYPES = PieceType.values().length;
+
+	private long[] bitboards;
+	private long[] colorOccupancy;
+	private long occupancy;
+	private int[] kingSquares;
+	private long hash;
+	private Position[] positions;
+
+	public ChessBoard() {
+		super(SIZE, SIZE);
+		positions = new Position[SQUARES];
+		for (int i = 0; i < SQUARES; i++)
+			positions[i] = new Position(row(i), column(i));
+		bitboards = new long[COLORS * TYPES];
+		colorOccupancy = new long[COLORS];
+		kingSquares = new int[COLORS];
+		Arrays.fill(kingSquares, -1);
+	}
+
+	/**
+	 * Get the square index (0 to 63) of the given {@code Position}.
+	 * @param position {@code Position} object representing a board cell.
+	 * @return The square index
+	 */
+	public static int square(Position position) {
+		return square(position.getRow(), position.getColumn());
+	}
+
+	public static int square(int row, int column) {
+		return row * SIZE + column;
+	}
+
+	public static int row(int square) {
+		return square >>> 3;
+	}
+
+	public static int column(int square) {
+		return square & 7;
+	}
+
+	/**
+	 * @param mask A bitboard
+	 * @return A new boolean matrix with the cell of every set bit set
+	 */
+	public static boolean[][] toMatrix(long mask) {
+		boolean[][] mat = new boolean[SIZE][SIZE];
+		while (mask != 0) {
+			int square = Long.numberOfTrailingZeros(mask);
+			mat[row(square)][column(square)] = true;
+			mask &= mask - 1;
+		}
+		return mat;
+	}
+
+	/**
+	 * Get the board piece at the given square index or a null object.
+	 * @param square square index (0 to 63)
+	 * @return A {@code ChessPiece} object or a {@code null} value object if no piece is found.
+	 */
+	public ChessPiece piece(int square) {
+		return (ChessPiece) piece(row(square), column(square));
+	}
+
+	/**
+	 * Place a piece at the given square index without allocating a {@code Position}. The piece shares this board's
+	 * {@code Position} for that square, which must not be modified.
+	 * @param piece A {@code ChessPiece} object
+	 * @param square square index (0 to 63)
+	 */
+	public void placePiece(ChessPiece piece, int square) {
+		placePiece(piece, positions[square]);
+	}
+
+	/**
+	 * Remove the piece at the given square index without allocating a {@code Position}.
+	 * @param square square index (0 to 63)
+	 * @return The removed {@code ChessPiece} or a {@code null} value object if the square is empty.
+	 */
+	public ChessPiece removePiece(int square) {
+		return (ChessPiece) removePiece(positions[square]);
+	}
+
+	@Override
+	public void placePiece(Piece piece, Position position) {
+		super.placePiece(piece, position);
+		ChessPiece p = (ChessPiece) piece;
+		int square = square(position);
+		long bit = 1L << square;
+		bitboards[index(p.getColor(), p.getType())] |= bit;
+		colorOccupancy[p.getColor().ordinal()] |= bit;
+		occupancy |= bit;
+		hash ^= Zobrist.piece(p.getColor(), p.getType(), square);
+		if (p.getType() == PieceType.KING)
+			kingSquares[p.getColor().ordinal()] = square;
+	}
+
+	@Override
+	public Piece removePiece(Position position) {
+		Piece piece = super.removePiece(position);
+		if (piece != null) {
+			ChessPiece p = (ChessPiece) piece;
+			int square = square(position);
+			long bit = ~(1L << square);
+			bitboards[index(p.getColor(), p.getType())] &= bit;
+			colorOccupancy[p.getColor().ordinal()] &= bit;
+			occupancy &= bit;
+			hash ^= Zobrist.piece(p.getColor(), p.getType(), square);
+			if (p.getType() == PieceType.KING)
+				kingSquares[p.getColor().ordinal()] = -1;
+		}
+		return piece;
+	}
+
+	@Override
+	public boolean thereIsAPiece(Position position) {
+		if (!positionExists(position))
+			throw new BoardException("Position out of bounds.");
+
+		return thereIsAPiece(square(position));
+	}
+
+	public boolean thereIsAPiece(int square) {
+		return (occupancy & (1L << square)) != 0;
+	}
+
+	/**
+	 * @return A bitboard with every occupied square set
+	 */
+	public long occupied() {
+		return occupancy;
+	}
+
+	/**
+	 * @param color piece color
+	 * @return A bitboard with every square holding a piece of the given color set
+	 */
+	public long occupied(Color color) {
+		return colorOccupancy[color.ordinal()];
+	}
+
+	/**
+	 * @param color piece color
+	 * @param type piece type
+	 * @return A bitboard with every square holding a piece of the given color and type set
+	 */
+	public long pieces(Color color, PieceType type) {
+		return bitboards[index(color, type)];
+	}
+
+	/**
+	 * @return The Zobrist hash of the piece placement, kept up to date by every {@code placePiece} and
+	 *         {@code removePiece}
+	 */
+	public long hash() {
+		return hash;
+	}
+
+	/**
+	 * @param color king color
+	 * @return The square index of the king of the given color, or {@code -1} if it is not on the board
+	 */
+	public int kingSquare(Color color) {
+		return kingSquares[color.ordinal()];
+	}
+
+	/**
+	 * Checks if any piece of color {@code by} attacks the given square, by casting each piece type's attack pattern
+	 * outward from the square and intersecting it with that type's bitboard.
+	 * @param square square index (0 to 63)
+	 * @param by attacking color
+	 * @return {@code boolean}
+	 */
+	public boolean isAttacked(int square, Color by) {
+		return (Attacks.rook(square, occupancy) & pieces(by, PieceType.ROOK)) != 0
+				|| (Attacks.king(square) & pieces(by, PieceType.KING)) != 0;
+	}
+
+	private static int index(Color color, PieceType type) {
+		return color.ordinal() * TYPES + type.ordinal();
+	}
+}
@@ -1,35 +1,122 @@
 package chess;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-import boardgame.Board;
-import boardgame.Piece;
 import boardgame.Position;
+import chess.metrics.MoveMetrics;
+import chess.metrics.MoveMetrics.Phase;
 import chess.pieces.King;
 import chess.pieces.Rook;
 
 public class ChessMatch {
 
-	private Board board;
-	private static final int BOARD_SIZE = 8;
+	/**
+	 * Maximum number of moves kept in the history. Once it is full, the oldest half is dropped, so long-running
+	 * matches use bounded memory and can only take back the most recent moves.
+	 */
+	public static final int HISTORY_LIMIT = 1024;
+
+	private ChessBoard board;
 	private int turn;
 	private Color currentPlayer;
 	private boolean check;
 
-	private List<ChessPiece> piecesOnTheBoard;
+	// Pieces on the board are indexed by the board's per-color, per-type bitboards
 	private List<ChessPiece> capturedPieces;
+	private List<ChessPiece> capturedPiecesView;
+
+	private PositionSnapshot snapshot;
+	private ChessPiece[][] piecesView;
+
+	private List<MoveListener> moveListeners;
+	private MoveCache moveCache;
+
+	// Move history: one record per played move. Moves taken back by undo() wait on their own stack, so search
+	// (makeMove/unmakeMove) never disturbs them; only a new move from the public API discards them.
+	private int[] playedMoves;
+	private ChessPiece[] playedCaptures;
+	private boolean[] playedChecks;
+	private int played;
+	private int[] undoneMoves;
+	private int undone;
 
 	public ChessMatch() {
-		board = new Board(BOARD_SIZE, BOARD_SIZE);
-		turn = 1;
-		currentPlayer = Color.WHITE;
-		piecesOnTheBoard = new ArrayList<ChessPiece>();
-		capturedPieces = new ArrayList<ChessPiece>();
+		this(1, Color.WHITE);
 		initialSetup();
 	}
 
+	/**
+	 * Create an independent copy of another match's current position, with new pieces on a new board. Moves made
+	 * on either match don't affect the other.
+	 * @param other A {@code ChessMatch} object
+	 */
+	public ChessMatch(ChessMatch other) {
+		this(other.turn, other.currentPlayer);
+		check = other.check;
+		long occupied = other.board.occupied();
+		while (occupied != 0) {
+			int square = Long.numberOfTrailingZeros(occupied);
+			ChessPiece piece = other.board.piece(square);
+			placeNewPiece(square, newPiece(piece.getType(), piece.getColor()));
+			occupied &= occupied - 1;
+		}
+		for (ChessPiece piece : other.capturedPieces)
+			capturedPieces.add(newPiece(piece.getType(), piece.getColor()));
+	}
+
+	/**
+	 * Create a match from a FEN record, placing the pieces straight onto the board. Only kings and rooks are
+	 * supported. Castling and en passant fields are accepted but ignored, since neither move exists here; the
+	 * halfmove clock and fullmove number fields are optional.
+	 * @param fen FEN record, such as {@code "2rkr3/2rrr3/8/8/8/8/2RRR3/2RKR3 w - - 0 1"}
+	 * @throws ChessException if the record is malformed or describes a position that can't be played
+	 */
+	public ChessMatch(String fen) {
+		this(1, Color.WHITE);
+		String[] fields = fen.trim().split("\\s+");
+		if (fields.length < 2 || fields.length > 6)
+			throw invalidFen(fen, "expected 2 to 6 fields");
+		parsePlacement(fen, fields[0]);
+
+		if (fields[1].equals("b"))
+			currentPlayer = Color.BLACK;
+		else if (!fields[1].equals("w"))
+			throw invalidFen(fen, "side to move must be w or b");
+		if (fields.length > 2 && !fields[2].matches("-|K?Q?k?q?"))
+			throw invalidFen(fen, "bad castling field");
+		if (fields.length > 3 && !fields[3].matches("-|[a-h][36]"))
+			throw invalidFen(fen, "bad en passant field");
+		if (fields.length > 4)
+			parseFenNumber(fen, fields[4], 0);
+		int fullmove = fields.length > 5 ? parseFenNumber(fen, fields[5], 1) : 1;
+		turn = 2 * (fullmove - 1) + (currentPlayer == Color.WHITE ? 1 : 2);
+
+		for (Color color : Color.values())
+			if (Long.bitCount(board.pieces(color, PieceType.KING)) != 1)
+				throw invalidFen(fen, "each side needs exactly one king");
+		if (testCheck(opponent(currentPlayer)))
+			throw invalidFen(fen, "the side not to move is in check");
+		check = testCheck(currentPlayer);
+	}
+
+	private ChessMatch(int turn, Color currentPlayer) {
+		board = new ChessBoard();
+		this.turn = turn;
+		this.currentPlayer = currentPlayer;
+		capturedPieces = new ArrayList<ChessPiece>();
+		capturedPiecesView = Collections.unmodifiableList(capturedPieces);
+		moveListeners = new CopyOnWriteArrayList<MoveListener>();
+		moveCache = new MoveCache();
+		playedMoves = new int[MoveList.CAPACITY];
+		playedCaptures = new ChessPiece[MoveList.CAPACITY];
+		playedChecks = new boolean[MoveList.CAPACITY];
+		undoneMoves = new int[MoveList.CAPACITY];
+	}
+
 	public int getTurn() {
 		return turn;
 	}
@@ -42,18 +129,90 @@ public class ChessMatch {
 		return check;
 	}
 
+	/**
+	 * Get the 64-bit Zobrist hash of the current position (piece placement and side to move). The hash is updated
+	 * incrementally by every move, so this is a constant-time read.
+	 * @return The position hash
+	 */
+	public long getHash() {
+		return board.hash() ^ Zobrist.side(currentPlayer);
+	}
+
+	/**
+	 * @param color piece color
+	 * @param type piece type
+	 * @return A bitboard (see {@link ChessBoard}) with every square holding a piece of the given color and type set
+	 */
+	public long pieces(Color color, PieceType type) {
+		return board.pieces(color, type);
+	}
+
+	/**
+	 * @param color piece color
+	 * @return A bitboard (see {@link ChessBoard}) with every square holding a piece of the given color set
+	 */
+	public long occupied(Color color) {
+		return board.occupied(color);
+	}
+
+	/**
+	 * Get the current position as an immutable {@code PositionSnapshot}. The snapshot is built on the first call
+	 * after each move and shared by every later call until the next move.
+	 * @return The current {@code PositionSnapshot}
+	 */
+	public PositionSnapshot getSnapshot() {
+		if (snapshot == null)
+			snapshot = new PositionSnapshot(board, turn, currentPlayer, check, getHash());
+		return snapshot;
+	}
+
+	/**
+	 * Get the piece matrix of the current position. Like {@link #getSnapshot()}, the matrix is built once per move
+	 * and shared, so callers must not modify it.
+	 * @return A piece matrix representing a chess board piece distribution
+	 */
 	public ChessPiece[][] getPieces() {
-		ChessPiece[][] mat = new ChessPiece[board.getRows()][board.getColumns()];
-		for (int i = 0; i < board.getRows(); i++)
-			for (int j = 0; j < board.getColumns(); j++)
-				mat[i][j] = (ChessPiece) board.piece(i, j); // Downcasting: Piece -> ChessPiece
-		return mat;
+		if (piecesView == null) {
+			ChessPiece[][] mat = new ChessPiece[board.getRows()][board.getColumns()];
+			long occupied = board.occupied();
+			while (occupied != 0) {
+				int square = Long.numberOfTrailingZeros(occupied);
+				mat[ChessBoard.row(square)][ChessBoard.column(square)] = board.piece(square);
+				occupied &= occupied - 1;
+			}
+			piecesView = mat;
+		}
+		return piecesView;
+	}
+
+	/**
+	 * Export the current position as a FEN record. Castling and en passant are always {@code -} and the halfmove
+	 * clock is always {@code 0}, since this match doesn't track them.
+	 * @return The FEN record
+	 */
+	public String toFen() {
+		return getSnapshot().toFen();
 	}
 
 	public boolean[][] possibleMoves(ChessPosition chessPos) {
 		Position p = chessPos.toPosition();
 		validateSourcePosition(p);
-		return board.piece(p).possibleMoves();
+		return ChessBoard.toMatrix(possibleMovesMask(ChessBoard.square(p)));
+	}
+
+	/**
+	 * @return How many move mask lookups by {@link #possibleMoves(ChessPosition)} and
+	 *         {@link #performChessMove(ChessPosition, ChessPosition)} were answered from the move cache
+	 */
+	public long getMoveCacheHits() {
+		return moveCache.getHits();
+	}
+
+	/**
+	 * @return How many move mask lookups had to generate the moves
+	 */
+	public long getMoveCacheMisses() {
+		return moveCache.getMisses();
 	}
 
 	/**
@@ -64,62 +223,368 @@ public class ChessMatch {
 	 * @param targetPos move destiny position
 	 * @return The captured {@code ChessPiece} at {@code targetPos} or a
 	 *         {@code null} object if the position is empty
+	 * @throws ChessException with the {@link MoveStatus#message(int)} of the
+	 *         status {@link #tryMove(int, int)} rejected the move with
 	 */
 	public ChessPiece performChessMove(ChessPosition sourcePos, ChessPosition targetPos) {
-		Position source = sourcePos.toPosition();
-		Position target = targetPos.toPosition();
-		validateSourcePosition(source);
-		validateTargetPosition(source, target);
-		Piece capturedPiece = makeMove(source, target);
+		int status = tryMove(ChessBoard.square(sourcePos.toPosition()), ChessBoard.square(targetPos.toPosition()));
+		if (status != MoveStatus.OK)
+			throw new ChessException(MoveStatus.message(status));
+		return playedCaptures[played - 1];
+	}
+
+	/**
+	 * Same as {@link #performChessMove(ChessPosition, ChessPosition)}, but reports a rejected move with a status code
+	 * instead of an exception, so illegal input costs neither an allocation nor a stack trace.
+	 * @param source source square index (0 to 63)
+	 * @param target target square index (0 to 63)
+	 * @return {@link MoveStatus#OK} if the move was played, otherwise the {@code MoveStatus} code it was rejected with.
+	 *         The captured piece of a played move is returned by {@link #getLastCapturedPiece()}. If a
+	 *         {@link MoveListener} throws, the move is taken back, the listeners already told about it get
+	 *         {@link MoveListener#moveUndone(ChessMatch, int)}, and {@link MoveStatus#LISTENER_FAILED} is returned.
+	 */
+	public int tryMove(int source, int target) {
+		boolean metrics = MoveMetrics.isEnabled();
+		long t = metrics ? MoveMetrics.attempt() : 0;
+		int status = source < 0 || source >= ChessBoard.SQUARES || target < 0 || target >= ChessBoard.SQUARES
+				? MoveStatus.INVALID_SQUARE : sourceStatus(source);
+		if (metrics)
+			t = MoveMetrics.lap(Phase.VALIDATE_SOURCE, t);
+		if (status == MoveStatus.OK) {
+			status = targetStatus(source, target);
+			if (metrics)
+				t = MoveMetrics.lap(Phase.VALIDATE_TARGET, t);
+		}
+		if (status != MoveStatus.OK) {
+			if (metrics)
+				MoveMetrics.rejected(status);
+			return status;
+		}
+		ChessPiece capturedPiece = makeMove(source, target);
+		if (metrics)
+			t = MoveMetrics.lap(Phase.MAKE_MOVE, t);
 		
-		if(testCheck(currentPlayer)) {
+		boolean selfCheck = testCheck(currentPlayer);
+		if (metrics)
+			t = MoveMetrics.lap(Phase.SELF_CHECK, t);
+		if(selfCheck) {
 			undoMove(source, target, capturedPiece);
-			throw new ChessException("You can't put yourself in check.");
+			if (metrics) {
+				MoveMetrics.lap(Phase.UNDO_MOVE, t);
+				MoveMetrics.rejected(MoveStatus.SELF_CHECK);
+			}
+			return MoveStatus.SELF_CHECK;
 		}
 		
-		this.check = testCheck(opponent(currentPlayer));
+		boolean opponentCheck = testCheck(opponent(currentPlayer));
+		if (metrics)
+			MoveMetrics.lap(Phase.OPPONENT_CHECK, t);
+		int move = Move.of(source, target);
+		record(move, capturedPiece, check);
+		int redoable = undone;
+		undone = 0;
+		this.check = opponentCheck;
 		
 		nextTurn();
-		return (ChessPiece) capturedPiece;
+		for (int i = 0; i < moveListeners.size(); i++) {
+			try {
+				moveListeners.get(i).moveMade(this, move, capturedPiece);
+			} catch (RuntimeException e) {
+				unplay();
+				undone = redoable;
+				for (int j = 0; j < i; j++)
+					try {
+						moveListeners.get(j).moveUndone(this, move);
+					} catch (RuntimeException ignored) {
+						// Already failing the move; the rollback must reach every listener
+					}
+				if (metrics)
+					MoveMetrics.rejected(MoveStatus.LISTENER_FAILED);
+				return MoveStatus.LISTENER_FAILED;
+			}
+		}
+		if (metrics)
+			MoveMetrics.accepted();
+		return MoveStatus.OK;
+	}
+
+	/**
+	 * @return The piece captured by the last move played, or {@code null} if it captured nothing or no move was played
+	 */
+	public ChessPiece getLastCapturedPiece() {
+		return played == 0 ? null : playedCaptures[played - 1];
+	}
+
+	/**
+	 * Take back the last move. The move is kept, so {@link #redo()} can play it again until another move is made
+	 * with {@link #tryMove(int, int)} or {@link #performChessMove(ChessPosition, ChessPosition)}.
+	 * @return The encoded move taken back
+	 * @throws ChessException if there is no move to take back
+	 */
+	public int undo() {
+		if (played == 0)
+			throw new ChessException("There is no move to undo.");
+		int move = playedMoves[played - 1];
+		unplay();
+		if (undone == undoneMoves.length)
+			undoneMoves = Arrays.copyOf(undoneMoves, undone * 2);
+		undoneMoves[undone++] = move;
+		for (int i = 0; i < moveListeners.size(); i++)
+			moveListeners.get(i).moveUndone(this, move);
+		return move;
+	}
+
+	/**
+	 * Play again the last move taken back by {@link #undo()}.
+	 * @return The captured {@code ChessPiece} or a {@code null} object if the move captures nothing
+	 * @throws ChessException if there is no move to redo
+	 */
+	public ChessPiece redo() {
+		if (undone == 0)
+			throw new ChessException("There is no move to redo.");
+		int move = undoneMoves[--undone];
+		ChessPiece capturedPiece = makeMove(Move.source(move), Move.target(move));
+		record(move, capturedPiece, check);
+		nextTurn();
+		check = testCheck(currentPlayer);
+		for (int i = 0; i < moveListeners.size(); i++)
+			moveListeners.get(i).moveMade(this, move, capturedPiece);
+		return capturedPiece;
+	}
+
+	public boolean canUndo() {
+		return played > 0;
+	}
+
+	public boolean canRedo() {
+		return undone > 0;
+	}
+
+	/**
+	 * @return The number of moves in the history, which can be taken back: the moves played since the match started,
+	 *         not counting moves taken back, and at most {@link #HISTORY_LIMIT}
+	 */
+	public int getHistorySize() {
+		return played;
+	}
+
+	/**
+	 * @param index zero-based move index, less than {@link #getHistorySize()}
+	 * @return The encoded move played at {@code index}
+	 */
+	public int getHistoryMove(int index) {
+		if (index < 0 || index >= played)
+			throw new IndexOutOfBoundsException("Move " + index + " of " + played);
+		return playedMoves[index];
+	}
+
+	/**
+	 * @return The pieces captured so far, oldest first. The list is a read-only view.
+	 */
+	public List<ChessPiece> getCapturedPieces() {
+		return capturedPiecesView;
+	}
+
+	public void addMoveListener(MoveListener listener) {
+		moveListeners.add(listener);
+	}
+
+	public void removeMoveListener(MoveListener listener) {
+		moveListeners.remove(listener);
+	}
+
+	/**
+	 * Fill {@code moves} with every legal move for the current player, encoded as described in {@link Move}. A move
+	 * is legal when the piece can reach the target and it doesn't leave its own king in check.
+	 * @param moves A {@code MoveList} to clear and fill
+	 */
+	public void legalMoves(MoveList moves) {
+		moves.clear();
+		long own = board.occupied(currentPlayer);
+		while (own != 0) {
+			int from = Long.numberOfTrailingZeros(own);
+			own &= own - 1;
+			long targets = board.piece(from).possibleMovesMask();
+			while (targets != 0) {
+				int to = Long.numberOfTrailingZeros(targets);
+				targets &= targets - 1;
+				ChessPiece capturedPiece = makeMove(from, to);
+				if (!testCheck(currentPlayer))
+					moves.add(Move.of(from, to));
+				undoMove(from, to, capturedPiece);
+			}
+		}
+	}
+
+	/**
+	 * @return A new {@code MoveList} with every legal move for the current player
+	 */
+	public MoveList legalMoves() {
+		MoveList moves = new MoveList();
+		legalMoves(moves);
+		return moves;
+	}
+
+	/**
+	 * Play an encoded move from {@link #legalMoves(MoveList)} without validating it or notifying listeners, pass the
+	 * turn and update the check flag for the new current player. The move is pushed onto the same history as
+	 * {@link #performChessMove(ChessPosition, ChessPosition)}, but moves waiting for {@link #redo()} are kept. Meant
+	 * for search, which undoes it with {@link #unmakeMove()}.
+	 * @param move encoded move
+	 */
+	public void makeMove(int move) {
+		record(move, makeMove(Move.source(move), Move.target(move)), check);
+		nextTurn();
+		check = testCheck(currentPlayer);
+	}
+
+	/**
+	 * Undo the last move without notifying listeners. Unlike {@link #undo()}, the move is dropped from the history.
+	 */
+	public void unmakeMove() {
+		if (played == 0)
+			throw new IllegalStateException("There is no move to unmake.");
+		unplay();
+	}
+
+	/**
+	 * Count the leaf nodes of the legal move tree from the current position down to {@code depth} plies. The match
+	 * is restored to its current position before returning.
+	 * @param depth search depth in plies
+	 * @return The number of leaf nodes
+	 */
+	public long perft(int depth) {
+		MoveList[] lists = new MoveList[Math.max(depth, 1)];
+		for (int i = 0; i < lists.length; i++)
+			lists[i] = new MoveList();
+		return perft(depth, lists);
+	}
+
+	private long perft(int depth, MoveList[] lists) {
+		if (depth == 0)
+			return 1;
+		MoveList moves = lists[depth - 1];
+		legalMoves(moves);
+		if (depth == 1)
+			return moves.size();
+		
+		long nodes = 0;
+		for (int i = 0; i < moves.size(); i++) {
+			int from = Move.source(moves.get(i));
+			int to = Move.target(moves.get(i));
+			ChessPiece capturedPiece = makeMove(from, to);
+			nextTurn();
+			nodes += perft(depth - 1, lists);
+			previousTurn();
+			undoMove(from, to, capturedPiece);
+		}
+		return nodes;
 	}
 
 	private void validateSourcePosition(Position position) {
-		if (!board.thereIsAPiece(position))
-			throw new ChessException("There is no piece at source position.");
-		if (getCurrentPlayer() != ((ChessPiece) board.piece(position)).getColor())
-			throw new ChessException("This piece does not belong to you");
-		if (!board.piece(position).isThereAnyPossibleMove())
-			throw new ChessException("This piece can't move.");
+		int status = sourceStatus(ChessBoard.square(position));
+		if (status != MoveStatus.OK)
+			throw new ChessException(MoveStatus.message(status));
+	}
+
+	private int sourceStatus(int square) {
+		if (!board.thereIsAPiece(square))
+			return MoveStatus.NO_PIECE;
+		if (getCurrentPlayer() != board.piece(square).getColor())
+			return MoveStatus.NOT_YOUR_PIECE;
+		if (possibleMovesMask(square) == 0)
+			return MoveStatus.PIECE_CANNOT_MOVE;
+		return MoveStatus.OK;
+	}
+
+	private int targetStatus(int source, int target) {
+		if ((possibleMovesMask(source) & (1L << target)) == 0)
+			return MoveStatus.ILLEGAL_TARGET;
+		return MoveStatus.OK;
+	}
+
+	/**
+	 * The move mask of the piece on {@code square}, looked up in the move cache first. A UI typically asks for the
+	 * same piece's moves several times per user action, while the position stays the same.
+	 */
+	private long possibleMovesMask(int square) {
+		long hash = board.hash();
+		long mask = moveCache.get(hash, square);
+		if (mask == MoveCache.MISS) {
+			mask = board.piece(square).possibleMovesMask();
+			moveCache.put(hash, square, mask);
+		}
+		return mask;
+	}
+
+	private void record(int move, ChessPiece capturedPiece, boolean previousCheck) {
+		if (played == HISTORY_LIMIT)
+			dropOldestHalf();
+		else if (played == playedMoves.length) {
+			int capacity = Math.min(played * 2, HISTORY_LIMIT);
+			playedMoves = Arrays.copyOf(playedMoves, capacity);
+			playedCaptures = Arrays.copyOf(playedCaptures, capacity);
+			playedChecks = Arrays.copyOf(playedChecks, capacity);
+		}
+		playedMoves[played] = move;
+		playedCaptures[played] = capturedPiece;
+		playedChecks[played] = previousCheck;
+		played++;
+	}
+
+	/**
+	 * Shift the newer half of a full history down over the older half. Search only unmakes its own recent moves, so
+	 * the half kept is far deeper than any search line.
+	 */
+	private void dropOldestHalf() {
+		int kept = HISTORY_LIMIT / 2;
+		System.arraycopy(playedMoves, played - kept, playedMoves, 0, kept);
+		System.arraycopy(playedCaptures, played - kept, playedCaptures, 0, kept);
+		System.arraycopy(playedChecks, played - kept, playedChecks, 0, kept);
+		Arrays.fill(playedCaptures, kept, played, null);
+		played = kept;
 	}
 
-	private void validateTargetPosition(Position source, Position target) {
-		if (!board.piece(source).possibleMove(target))
-			throw new ChessException("The chosen piece can't move to target position");
+	private void unplay() {
+		played--;
+		previousTurn();
+		check = playedChecks[played];
+		undoMove(Move.source(playedMoves[played]), Move.target(playedMoves[played]), playedCaptures[played]);
+		playedCaptures[played] = null;
 	}
 
 	private void nextTurn() {
 		turn++;
 		currentPlayer = (currentPlayer == Color.WHITE) ? Color.BLACK : Color.WHITE;
+		positionChanged();
 	}
 
-	private Piece makeMove(Position source, Position target) {
-		Piece p = board.removePiece(source);
-		Piece capturedPiece = board.removePiece(target);
-		if(capturedPiece != null) {
-			piecesOnTheBoard.remove((ChessPiece)capturedPiece);
-			capturedPieces.add((ChessPiece)capturedPiece);
-		}
+	private void previousTurn() {
+		turn--;
+		currentPlayer = (currentPlayer == Color.WHITE) ? Color.BLACK : Color.WHITE;
+		positionChanged();
+	}
+
+	private void positionChanged() {
+		snapshot = null;
+		piecesView = null;
+	}
+
+	private ChessPiece makeMove(int source, int target) {
+		ChessPiece p = board.removePiece(source);
+		ChessPiece capturedPiece = board.removePiece(target);
+		if(capturedPiece != null)
+			capturedPieces.add(capturedPiece);
 		board.placePiece(p, target);
 		return capturedPiece;
 	}
 	
-	private void undoMove(Position source, Position target, Piece capturedPiece) {
-		Piece p = board.removePiece(target);
+	private void undoMove(int source, int target, ChessPiece capturedPiece) {
+		ChessPiece p = board.removePiece(target);
 		board.placePiece(p, source);
 		if(capturedPiece != null) {
 			board.placePiece(capturedPiece, target);
-			capturedPieces.remove(capturedPiece);
-			piecesOnTheBoard.add((ChessPiece) capturedPiece);
+			capturedPieces.remove(capturedPieces.size() - 1); // Moves are undone in reverse order
 		}
 	}
 	
@@ -127,27 +592,82 @@ public class ChessMatch {
 		return (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
 	}
 	
-	private ChessPiece king(Color color) {
-		List<ChessPiece> list = piecesOnTheBoard.stream().filter(x -> x.getColor() == color).collect(Collectors.toList());
-		for (ChessPiece p : list)
-			if(p instanceof King)
-				return p;
-		throw new IllegalStateException("There is no " + color + "king on the board.");
+	private int king(Color color) {
+		int square = board.kingSquare(color);
+		if (square < 0)
+			throw new IllegalStateException("There is no " + color + " king on the board.");
+		return square;
 	}
 	
 	private boolean testCheck(Color color) {
-		Position kingPosition = king(color).getChessPosition().toPosition();
-		List<ChessPiece> opponentList = piecesOnTheBoard.stream().filter(x -> x.getColor() == opponent(color)).collect(Collectors.toList());
-		for(ChessPiece p : opponentList)
-			if(p.possibleMove(kingPosition))
-				return true;
-		
-		return false;
+		return board.isAttacked(king(color), opponent(color));
 	}
 
 	private void placeNewPiece(char column, int row, ChessPiece piece) {
 		board.placePiece(piece, new ChessPosition(column, row).toPosition()); // Upcasting: ChessPiece -> Piece
-		piecesOnTheBoard.add(piece);
+	}
+
+	private void placeNewPiece(int square, ChessPiece piece) {
+		board.placePiece(piece, square);
+	}
+
+	private void parsePlacement(String fen, String placement) {
+		int row = 0;
+		int column = 0;
+		for (int i = 0; i < placement.length(); i++) {
+			char c = placement.charAt(i);
+			if (c == '/') {
+				if (column != ChessBoard.SIZE || ++row == ChessBoard.SIZE)
+					throw invalidFen(fen, "bad rank layout");
+				column = 0;
+			} else if (c >= '1' && c <= '8') {
+				column += c - '0';
+				if (column > ChessBoard.SIZE)
+					throw invalidFen(fen, "rank " + (ChessBoard.SIZE - row) + " is too long");
+			} else {
+				if (column == ChessBoard.SIZE)
+					throw invalidFen(fen, "rank " + (ChessBoard.SIZE - row) + " is too long");
+				PieceType type;
+				switch (Character.toUpperCase(c)) {
+				case 'K':
+					type = PieceType.KING;
+					break;
+				case 'R':
+					type = PieceType.ROOK;
+					break;
+				default:
+					throw invalidFen(fen, "unsupported piece '" + c + "'");
+				}
+				placeNewPiece(ChessBoard.square(row, column++), newPiece(type, Character.isUpperCase(c) ? Color.WHITE : Color.BLACK));
+			}
+		}
+		if (row != ChessBoard.SIZE - 1 || column != ChessBoard.SIZE)
+			throw invalidFen(fen, "expected 8 complete ranks");
+	}
+
+	private static int parseFenNumber(String fen, String field, int min) {
+		try {
+			int value = Integer.parseInt(field);
+			if (value >= min)
+				return value;
+		} catch (NumberFormatException e) {
+		}
+		throw invalidFen(fen, "bad number '" + field + "'");
+	}
+
+	private static ChessException invalidFen(String fen, String reason) {
+		return new ChessException("Invalid FEN \"" + fen + "\": " + reason + ".");
+	}
+
+	private ChessPiece newPiece(PieceType type, Color color) {
+		switch (type) {
+		case KING:
+			return new King(board, color);
+		case ROOK:
+			return new Rook(board, color);
+		default:
+			throw new IllegalArgumentException("Unknown piece type: " + type);
+		}
 	}
 
 	private void initialSetup() {
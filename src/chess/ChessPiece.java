@@ -1,6 +1,5 @@
 package chess;
 
-import boardgame.Board;
 import boardgame.Piece;
 import boardgame.Position;
 
@@ -8,17 +7,49 @@ public abstract class ChessPiece extends Piece {
 
 	private Color color;
 
-	public ChessPiece(Board board, Color color) {
+	public ChessPiece(ChessBoard board, Color color) {
 		super(board);
 		this.color = color;
 	}
 	
+	@Override
+	protected ChessBoard getBoard() {
+		return (ChessBoard) super.getBoard();
+	}
+	
 	public ChessPosition getChessPosition() {
 		return ChessPosition.fromPosition(position);
 	}
 	public Color getColor() {
 		return color;
 	}
+
+	public abstract PieceType getType();
+
+	/**
+	 * Get every square this piece can move to as a bit mask, with bit {@code row * 8 + column} set for each
+	 * reachable square. Doesn't allocate.
+	 * @return The possible moves bit mask
+	 */
+	public abstract long possibleMovesMask();
+
+	/**
+	 * Prefer {@link #possibleMovesMask()} on hot paths, since this allocates a new matrix on each call.
+	 */
+	@Override
+	public boolean[][] possibleMoves() {
+		return ChessBoard.toMatrix(possibleMovesMask());
+	}
+
+	@Override
+	public boolean possibleMove(Position position) {
+		return (possibleMovesMask() & (1L << ChessBoard.square(position))) != 0;
+	}
+
+	@Override
+	public boolean isThereAnyPossibleMove() {
+		return possibleMovesMask() != 0;
+	}
 	
 	protected boolean isThereOpponentPiece(Position position) {
 		ChessPiece p = (ChessPiece) getBoard().piece(position);
@@ -25,6 +25,21 @@ public class ChessPosition {
 		return column;
 	}
 	
+	/**
+	 * Parse a chess position string such as {@code e4} without allocating or throwing.
+	 * @param s A chess position string
+	 * @return The square index (0 to 63) of the position, or {@code -1} if {@code s} is not {@code a1} to {@code h8}
+	 */
+	public static int square(CharSequence s) {
+		if (s == null || s.length() != 2)
+			return -1;
+		char column = s.charAt(0);
+		char row = s.charAt(1);
+		if (column < 'a' || column > 'h' || row < '1' || row > '8')
+			return -1;
+		return ChessBoard.square('8' - row, column - 'a');
+	}
+
 	protected Position toPosition() {
 		int posRow = 8 - this.row;
 		int posColumn = this.column - 'a';
@@ -39,6 +54,6 @@ public class ChessPosition {
 
 	@Override
 	public String toString() {
-		return String.format("%c%c", column, row);
+		return String.format("%c%d", column, row);
 	}
 }
@@ -0,0 +1,235 @@
+package chess;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@code ChessMatch} facade that can be shared between threads. Moves, undo and redo serialize on a per-match
+ * lock, and after each change an immutable snapshot of the match state is published. Every read is served from the
+ * latest snapshot, so readers never wait on move processing.
+ */
+public class ConcurrentChessMatch {
+
+	private ChessMatch chessMatch;
+	private ReentrantLock lock;
+	private volatile Snapshot snapshot;
+
+	public ConcurrentChessMatch() {
+		this(new ChessMatch());
+	}
+
+	/**
+	 * Same as {@link ChessMatch#ChessMatch(String)}.
+	 * @param fen FEN record
+	 * @throws ChessException if the record is malformed or describes a position that can't be played
+	 */
+	public ConcurrentChessMatch(String fen) {
+		this(new ChessMatch(fen));
+	}
+
+	/**
+	 * Wrap an existing match. The match must not be used directly afterwards.
+	 * @param chessMatch A {@code ChessMatch} object
+	 */
+	public ConcurrentChessMatch(ChessMatch chessMatch) {
+		this.chessMatch = chessMatch;
+		this.lock = new ReentrantLock();
+		publish();
+	}
+
+	public int getTurn() {
+		return snapshot.position.getTurn();
+	}
+
+	public Color getCurrentPlayer() {
+		return snapshot.position.getCurrentPlayer();
+	}
+
+	public boolean getCheck() {
+		return snapshot.position.getCheck();
+	}
+
+	public long getHash() {
+		return snapshot.position.getHash();
+	}
+
+	/**
+	 * @return The {@code PositionSnapshot} published by the last change
+	 */
+	public PositionSnapshot getSnapshot() {
+		return snapshot.position;
+	}
+
+	/**
+	 * @return The piece matrix as of the last published change, shared with every other reader, so it must not be
+	 *         modified. The pieces are the match's own objects, so only their color and type should be relied on.
+	 */
+	public ChessPiece[][] getPieces() {
+		return snapshot.pieces;
+	}
+
+	/**
+	 * Same as {@link ChessMatch#toFen()}, answered from the last published snapshot.
+	 * @return The FEN record
+	 */
+	public String toFen() {
+		return snapshot.position.toFen();
+	}
+
+	/**
+	 * @return The piece captured by the last move played, or {@code null}
+	 */
+	public ChessPiece getLastCapturedPiece() {
+		return snapshot.lastCaptured;
+	}
+
+	public boolean canUndo() {
+		return snapshot.canUndo;
+	}
+
+	public boolean canRedo() {
+		return snapshot.canRedo;
+	}
+
+	/**
+	 * Same as {@link ChessMatch#possibleMoves(ChessPosition)}, answered from the last published snapshot.
+	 * @param chessPos source position
+	 * @return A boolean matrix representing a chess board possible moves distribution
+	 */
+	public boolean[][] possibleMoves(ChessPosition chessPos) {
+		Snapshot s = snapshot;
+		int square = ChessBoard.square(chessPos.toPosition());
+		if (s.position.isEmpty(square))
+			throw new ChessException(MoveStatus.message(MoveStatus.NO_PIECE));
+		if (s.position.getColor(square) != s.position.getCurrentPlayer())
+			throw new ChessException(MoveStatus.message(MoveStatus.NOT_YOUR_PIECE));
+		long mask = s.possibleMoves[square];
+		if (mask == 0)
+			throw new ChessException(MoveStatus.message(MoveStatus.PIECE_CANNOT_MOVE));
+		return ChessBoard.toMatrix(mask);
+	}
+
+	/**
+	 * Same as {@link ChessMatch#performChessMove(ChessPosition, ChessPosition)}, serialized with other writers.
+	 * @param sourcePos piece start position
+	 * @param targetPos move destiny position
+	 * @return The captured {@code ChessPiece} at {@code targetPos} or a {@code null} object if the position is empty
+	 */
+	public ChessPiece performChessMove(ChessPosition sourcePos, ChessPosition targetPos) {
+		lock.lock();
+		try {
+			ChessPiece capturedPiece = chessMatch.performChessMove(sourcePos, targetPos);
+			publish();
+			return capturedPiece;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Same as {@link ChessMatch#tryMove(int, int)}, serialized with other writers. A snapshot is only published if
+	 * the move was played.
+	 * @param source source square index (0 to 63)
+	 * @param target target square index (0 to 63)
+	 * @return A {@code MoveStatus} code
+	 */
+	public int tryMove(int source, int target) {
+		lock.lock();
+		try {
+			int status = chessMatch.tryMove(source, target);
+			if (status == MoveStatus.OK)
+				publish();
+			return status;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Same as {@link ChessMatch#undo()}, serialized with other writers.
+	 * @return The encoded move taken back
+	 * @throws ChessException if there is no move to take back
+	 */
+	public int undo() {
+		lock.lock();
+		try {
+			int move = chessMatch.undo();
+			publish();
+			return move;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Same as {@link ChessMatch#redo()}, serialized with other writers.
+	 * @return The captured {@code ChessPiece} or a {@code null} object if the move captures nothing
+	 * @throws ChessException if there is no move to redo
+	 */
+	public ChessPiece redo() {
+		lock.lock();
+		try {
+			ChessPiece capturedPiece = chessMatch.redo();
+			publish();
+			return capturedPiece;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Fill {@code moves} with the legal moves of the current player, serialized with other writers since move
+	 * enumeration makes and undoes moves on the underlying board.
+	 * @param moves A {@code MoveList} to clear and fill
+	 */
+	public void legalMoves(MoveList moves) {
+		lock.lock();
+		try {
+			chessMatch.legalMoves(moves);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Listeners run on the writer's thread while it holds the match lock.
+	 * @param listener A {@code MoveListener}
+	 */
+	public void addMoveListener(MoveListener listener) {
+		chessMatch.addMoveListener(listener);
+	}
+
+	public void removeMoveListener(MoveListener listener) {
+		chessMatch.removeMoveListener(listener);
+	}
+
+	private void publish() {
+		ChessPiece[][] pieces = chessMatch.getPieces();
+		long[] possibleMoves = new long[ChessBoard.SQUARES];
+		for (int i = 0; i < pieces.length; i++)
+			for (int j = 0; j < pieces[i].length; j++)
+				if (pieces[i][j] != null && pieces[i][j].getColor() == chessMatch.getCurrentPlayer())
+					possibleMoves[ChessBoard.square(i, j)] = pieces[i][j].possibleMovesMask();
+		snapshot = new Snapshot(chessMatch.getSnapshot(), pieces, possibleMoves, chessMatch.getLastCapturedPiece(),
+				chessMatch.canUndo(), chessMatch.canRedo());
+	}
+
+	private static final class Snapshot {
+
+		private final PositionSnapshot position;
+		private final ChessPiece[][] pieces;
+		private final long[] possibleMoves;
+		private final ChessPiece lastCaptured;
+		private final boolean canUndo;
+		private final boolean canRedo;
+
+		private Snapshot(PositionSnapshot position, ChessPiece[][] pieces, long[] possibleMoves, ChessPiece lastCaptured,
+				boolean canUndo, boolean canRedo) {
+			this.position = position;
+			this.pieces = pieces;
+			this.possibleMoves = possibleMoves;
+			this.lastCaptured = lastCaptured;
+			this.canUndo = canUndo;
+			this.canRedo = canRedo;
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package chess;
+
+/**
+ * Helpers for moves encoded as a primitive {@code int}: the source square index in bits 0-5 and the target square
+ * index in bits 6-11, so every move fits in 16 bits. Square indexes follow {@link ChessBoard#square(int, int)}.
+ */
+public final class Move {
+
+	/**
+	 * Encoded value that is never a real move, since a piece can't move onto its own square.
+	 */
+	public static final int NONE = 0;
+
+	private Move() {
+	}
+
+	public static int of(int source, int target) {
+		return source | (target << 6);
+	}
+
+	/**
+	 * @param source move source
+	 * @param target move target
+	 * @return The encoded move
+	 */
+	public static int of(ChessPosition source, ChessPosition target) {
+		return of(ChessBoard.square(source.toPosition()), ChessBoard.square(target.toPosition()));
+	}
+
+	public static int source(int move) {
+		return move & 0x3F;
+	}
+
+	public static int target(int move) {
+		return (move >>> 6) & 0x3F;
+	}
+
+	/**
+	 * @param move encoded move
+	 * @return The move source as a {@code ChessPosition}
+	 */
+	public static ChessPosition sourcePosition(int move) {
+		return toChessPosition(source(move));
+	}
+
+	/**
+	 * @param move encoded move
+	 * @return The move target as a {@code ChessPosition}
+	 */
+	public static ChessPosition targetPosition(int move) {
+		return toChessPosition(target(move));
+	}
+
+	/**
+	 * @param move encoded move
+	 * @return The move in coordinate notation, such as {@code c1c3}
+	 */
+	public static String toString(int move) {
+		return sourcePosition(move).toString() + targetPosition(move).toString();
+	}
+
+	static ChessPosition toChessPosition(int square) {
+		return new ChessPosition((char) ('a' + ChessBoard.column(square)), ChessBoard.SIZE - ChessBoard.row(square));
+	}
+}
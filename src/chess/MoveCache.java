@@ -0,0 +1,115 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A bounded cache of piece move masks keyed by board position and square. Entries are grouped in sets of four, and
+ * a full set evicts its least recently used entry, so a lookup probes at most four slots and never allocates.
+ * <p>
+ * A key is the board's Zobrist hash mixed with a per-square key, so a stale entry for a position that has since
+ * changed can only be returned on a 64-bit hash collision.
+ */
+public class MoveCache {
+
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * Returned by {@link #get(long, int)} when the entry is not cached. No move mask can be all ones, since a piece
+	 * never moves to its own square.
+	 */
+	public static final long MISS = -1L;
+
+	private static final int WAYS = 4;
+	private static final long[] SQUARE_KEYS = new long[ChessBoard.SQUARES];
+
+	static {
+		SplittableRandom random = new SplittableRandom(0x6C8E_9CF5_7032_4B11L);
+		for (int i = 0; i < SQUARE_KEYS.length; i++)
+			SQUARE_KEYS[i] = random.nextLong();
+	}
+
+	private long[] keys;
+	private long[] masks;
+	private long[] lastUsed;
+	private int setMask;
+	private long clock;
+	private long hits;
+	private long misses;
+
+	public MoveCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity number of cached entries, rounded up to a power of two of at least four
+	 */
+	public MoveCache(int capacity) {
+		int size = Integer.highestOneBit(Math.max(capacity, WAYS) - 1) << 1;
+		keys = new long[size];
+		masks = new long[size];
+		lastUsed = new long[size];
+		setMask = size / WAYS - 1;
+	}
+
+	/**
+	 * @param hash board hash, as returned by {@link ChessBoard#hash()}
+	 * @param square square index (0 to 63)
+	 * @return The cached move mask or {@link #MISS}
+	 */
+	public long get(long hash, int square) {
+		long key = hash ^ SQUARE_KEYS[square];
+		int set = index(key);
+		for (int i = set; i < set + WAYS; i++)
+			if (keys[i] == key && lastUsed[i] != 0) {
+				lastUsed[i] = ++clock;
+				hits++;
+				return masks[i];
+			}
+		misses++;
+		return MISS;
+	}
+
+	/**
+	 * Cache a move mask, evicting the least recently used entry of its set if needed.
+	 * @param hash board hash, as returned by {@link ChessBoard#hash()}
+	 * @param square square index (0 to 63)
+	 * @param mask move mask
+	 */
+	public void put(long hash, int square, long mask) {
+		long key = hash ^ SQUARE_KEYS[square];
+		int set = index(key);
+		int victim = set;
+		for (int i = set; i < set + WAYS; i++) {
+			if (keys[i] == key || lastUsed[i] == 0) {
+				victim = i;
+				break;
+			}
+			if (lastUsed[i] < lastUsed[victim])
+				victim = i;
+		}
+		keys[victim] = key;
+		masks[victim] = mask;
+		lastUsed[victim] = ++clock;
+	}
+
+	public void clear() {
+		Arrays.fill(lastUsed, 0L);
+	}
+
+	public int getCapacity() {
+		return keys.length;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	private int index(long key) {
+		return ((int) (key ^ (key >>> 32)) & setMask) * WAYS;
+	}
+}
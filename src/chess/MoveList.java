@@ -0,0 +1,60 @@
+package chess;
+
+/**
+ * A reusable list of encoded moves (see {@link Move}) backed by a primitive array. Clearing and refilling the same
+ * list allocates nothing.
+ */
+public class MoveList {
+
+	/**
+	 * Upper bound on the moves one side can have: a king (8 moves) plus 15 rooks (14 moves each) stays below it.
+	 */
+	public static final int CAPACITY = 256;
+
+	private int[] moves;
+	private int size;
+
+	public MoveList() {
+		moves = new int[CAPACITY];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int get(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException(index);
+		return moves[index];
+	}
+
+	public void add(int move) {
+		moves[size++] = move;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	public boolean contains(int move) {
+		for (int i = 0; i < size; i++)
+			if (moves[i] == move)
+				return true;
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < size; i++) {
+			if (i > 0)
+				sb.append(", ");
+			sb.append(Move.toString(moves[i]));
+		}
+		return sb.append(']').toString();
+	}
+}
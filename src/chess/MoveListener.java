@@ -0,0 +1,29 @@
+package chess;
+
+/**
+ * Notified by a {@code ChessMatch} after each move accepted by
+ * {@link ChessMatch#performChessMove(ChessPosition, ChessPosition)} or replayed by {@link ChessMatch#redo()}, and
+ * after each move taken back by {@link ChessMatch#undo()}. Listeners run on the thread making the move,
+ * inside the move's latency, so they should only hand the event off.
+ * <p>
+ * A listener that throws from {@link #moveMade(ChessMatch, int, ChessPiece)} during
+ * {@link ChessMatch#tryMove(int, int)} vetoes the move: it is taken back and {@code tryMove} returns
+ * {@link MoveStatus#LISTENER_FAILED}. Exceptions thrown during {@link ChessMatch#undo()} and
+ * {@link ChessMatch#redo()} reach their caller.
+ */
+public interface MoveListener {
+
+	/**
+	 * @param chessMatch the match, already showing the position after the move
+	 * @param move encoded move, as described in {@link Move}
+	 * @param capturedPiece the captured piece or {@code null}
+	 */
+	void moveMade(ChessMatch chessMatch, int move, ChessPiece capturedPiece);
+
+	/**
+	 * @param chessMatch the match, already showing the position before the move
+	 * @param move encoded move taken back
+	 */
+	default void moveUndone(ChessMatch chessMatch, int move) {
+	}
+}
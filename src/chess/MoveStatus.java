@@ -0,0 +1,51 @@
+package chess;
+
+/**
+ * Primitive status codes returned by {@link ChessMatch#tryMove(int, int)}. Every code but {@link #OK} is a rejection
+ * and has the same message the throwing {@link ChessMatch#performChessMove(ChessPosition, ChessPosition)} reports.
+ */
+public final class MoveStatus {
+
+	public static final int OK = 0;
+	public static final int INVALID_SQUARE = 1;
+	public static final int NO_PIECE = 2;
+	public static final int NOT_YOUR_PIECE = 3;
+	public static final int PIECE_CANNOT_MOVE = 4;
+	public static final int ILLEGAL_TARGET = 5;
+	public static final int SELF_CHECK = 6;
+	/**
+	 * A {@link MoveListener} threw while the move was being reported, so the move was taken back.
+	 */
+	public static final int LISTENER_FAILED = 7;
+
+	/**
+	 * Number of status codes, all of them in {@code 0} to {@code COUNT - 1}.
+	 */
+	public static final int COUNT = 8;
+
+	private static final String[] NAMES = { "ok", "invalid_square", "no_piece", "not_your_piece", "piece_cannot_move",
+			"illegal_target", "self_check", "listener_failed" };
+
+	private static final String[] MESSAGES = { "OK", "Square out of bounds.", "There is no piece at source position.",
+			"This piece does not belong to you", "This piece can't move.", "The chosen piece can't move to target position",
+			"You can't put yourself in check.", "The move could not be recorded." };
+
+	private MoveStatus() {
+	}
+
+	/**
+	 * @param status a status code
+	 * @return A short lower-case name for the code, such as {@code self_check}
+	 */
+	public static String name(int status) {
+		return NAMES[status];
+	}
+
+	/**
+	 * @param status a status code
+	 * @return The message of the {@code ChessException} the throwing API reports for the code
+	 */
+	public static String message(int status) {
+		return MESSAGES[status];
+	}
+}
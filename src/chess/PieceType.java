@@ -0,0 +1,6 @@
+package chess;
+
+public enum PieceType {
+	KING,
+	ROOK;
+}
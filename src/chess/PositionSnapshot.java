@@ -0,0 +1,136 @@
+package chess;
+
+/**
+ * An immutable, compact copy of a {@code ChessMatch} position: one byte per square plus the turn, current player,
+ * check flag and hash. A match produces at most one snapshot per move and every reader shares it.
+ */
+public final class PositionSnapshot {
+
+	private static final Color[] COLORS = Color.values();
+	private static final PieceType[] TYPES = PieceType.values();
+
+	private final byte[] squares;
+	private final int turn;
+	private final Color currentPlayer;
+	private final boolean check;
+	private final long hash;
+
+	PositionSnapshot(ChessBoard board, int turn, Color currentPlayer, boolean check, long hash) {
+		this.squares = new byte[ChessBoard.SQUARES];
+		for (Color color : COLORS)
+			for (PieceType type : TYPES) {
+				long bits = board.pieces(color, type);
+				while (bits != 0) {
+					squares[Long.numberOfTrailingZeros(bits)] = code(color, type);
+					bits &= bits - 1;
+				}
+			}
+		this.turn = turn;
+		this.currentPlayer = currentPlayer;
+		this.check = check;
+		this.hash = hash;
+	}
+
+	/**
+	 * @param color piece color
+	 * @param type piece type
+	 * @return The non-zero byte code a square holds for a piece of the given color and type
+	 */
+	public static byte code(Color color, PieceType type) {
+		return (byte) (1 + color.ordinal() * TYPES.length + type.ordinal());
+	}
+
+	/**
+	 * @param square square index (0 to 63)
+	 * @return The square's byte code, {@code 0} if it is empty
+	 */
+	public byte code(int square) {
+		return squares[square];
+	}
+
+	public boolean isEmpty(int square) {
+		return squares[square] == 0;
+	}
+
+	/**
+	 * @param square square index (0 to 63)
+	 * @return The color of the piece on {@code square} or {@code null} if it is empty
+	 */
+	public Color getColor(int square) {
+		return squares[square] == 0 ? null : COLORS[(squares[square] - 1) / TYPES.length];
+	}
+
+	/**
+	 * @param square square index (0 to 63)
+	 * @return The type of the piece on {@code square} or {@code null} if it is empty
+	 */
+	public PieceType getType(int square) {
+		return squares[square] == 0 ? null : TYPES[(squares[square] - 1) % TYPES.length];
+	}
+
+	/**
+	 * @param square square index (0 to 63)
+	 * @return {@code -} for an empty square, otherwise the piece letter, upper case for white and lower case for black
+	 */
+	public char symbol(int square) {
+		if (squares[square] == 0)
+			return '-';
+		char letter = getType(square) == PieceType.KING ? 'K' : 'R';
+		return getColor(square) == Color.WHITE ? letter : Character.toLowerCase(letter);
+	}
+
+	public int getTurn() {
+		return turn;
+	}
+
+	public Color getCurrentPlayer() {
+		return currentPlayer;
+	}
+
+	public boolean getCheck() {
+		return check;
+	}
+
+	public long getHash() {
+		return hash;
+	}
+
+	/**
+	 * @return The position as a FEN record, with castling and en passant always {@code -} and the halfmove clock
+	 *         always {@code 0}
+	 */
+	public String toFen() {
+		StringBuilder sb = new StringBuilder(96);
+		for (int row = 0; row < ChessBoard.SIZE; row++) {
+			if (row > 0)
+				sb.append('/');
+			int empty = 0;
+			for (int column = 0; column < ChessBoard.SIZE; column++) {
+				int square = ChessBoard.square(row, column);
+				if (squares[square] == 0) {
+					empty++;
+					continue;
+				}
+				if (empty > 0)
+					sb.append(empty);
+				empty = 0;
+				sb.append(symbol(square));
+			}
+			if (empty > 0)
+				sb.append(empty);
+		}
+		sb.append(currentPlayer == Color.WHITE ? " w" : " b").append(" - - 0 ").append((turn + 1) / 2);
+		return sb.toString();
+	}
+
+	/**
+	 * @return Every square's symbol from a8 to h1, as returned by {@link #symbol(int)}
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(ChessBoard.SQUARES);
+		for (int i = 0; i < ChessBoard.SQUARES; i++)
+			sb.append(symbol(i));
+		return sb.toString();
+	}
+}
@@ -0,0 +1,43 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist keys for hashing chess positions. The keys come from a fixed seed, so a position hashes to the same value
+ * on every run and hashes can be stored.
+ */
+public final class Zobrist {
+
+	private static final int TYPES = PieceType.values().length;
+
+	private static final long[] PIECES = new long[Color.values().length * TYPES * ChessBoard.SQUARES];
+	private static final long BLACK_TO_MOVE;
+
+	static {
+		SplittableRandom random = new SplittableRandom(0x2F0B_81C7_5A3D_E694L);
+		for (int i = 0; i < PIECES.length; i++)
+			PIECES[i] = random.nextLong();
+		BLACK_TO_MOVE = random.nextLong();
+	}
+
+	private Zobrist() {
+	}
+
+	/**
+	 * @param color piece color
+	 * @param type piece type
+	 * @param square square index (0 to 63)
+	 * @return The key for a piece of the given color and type standing on {@code square}
+	 */
+	public static long piece(Color color, PieceType type, int square) {
+		return PIECES[(color.ordinal() * TYPES + type.ordinal()) * ChessBoard.SQUARES + square];
+	}
+
+	/**
+	 * @param sideToMove color to move
+	 * @return The key for the side to move
+	 */
+	public static long side(Color sideToMove) {
+		return sideToMove == Color.BLACK ? BLACK_TO_MOVE : 0L;
+	}
+}
@@ -0,0 +1,341 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+import chess.Attacks;
+import chess.ChessBoard;
+import chess.ChessMatch;
+import chess.Color;
+import chess.Move;
+import chess.MoveList;
+import chess.PieceType;
+
+/**
+ * An iterative-deepening alpha-beta search over a {@code ChessMatch}, using its {@code makeMove}/{@code unmakeMove}
+ * machinery. Positions are cached in a {@link TranspositionTable}; moves are tried in the order: table move,
+ * captures, killer moves, then by history score. Leaves are resolved with a capture-only quiescence search.
+ * <p>
+ * An engine keeps per-search state, so one instance must only run one search at a time.
+ */
+public class Engine {
+
+	public static final int MATE = 30000;
+	public static final int MAX_PLY = 128;
+
+	private static final int MATE_BOUND = MATE - MAX_PLY;
+	private static final int INFINITY = 32000;
+	private static final int ROOK_VALUE = 500;
+	private static final int ROOK_MOBILITY = 2;
+
+	private static final int TABLE_MOVE_ORDER = 1 << 30;
+	private static final int CAPTURE_ORDER = 1 << 29;
+	private static final int KILLER_ORDER = 1 << 28;
+
+	private TranspositionTable table;
+	private MoveList moveList;
+	private int[][] plyMoves;
+	private int[][] plyOrder;
+	private int[][] killers;
+	private int[] history;
+
+	private long nodes;
+	private long deadline;
+	private boolean aborted;
+	private volatile boolean stopped;
+	private int rootBestMove;
+
+	public Engine() {
+		this(new TranspositionTable(16, ReplacementPolicy.DEPTH_PREFERRED));
+	}
+
+	public Engine(TranspositionTable table) {
+		this.table = table;
+		this.moveList = new MoveList();
+		this.plyMoves = new int[MAX_PLY][MoveList.CAPACITY];
+		this.plyOrder = new int[MAX_PLY][MoveList.CAPACITY];
+		this.killers = new int[MAX_PLY][2];
+		this.history = new int[1 << 12];
+	}
+
+	public TranspositionTable getTable() {
+		return table;
+	}
+
+	/**
+	 * Search the current position of {@code match} for the side to move. The match is restored to its current
+	 * position before returning.
+	 * @param match A {@code ChessMatch} object
+	 * @param maxDepth deepest iteration to run
+	 * @param timeMillis time budget in milliseconds, or {@code 0} for no limit. The search returns the result of the
+	 *            last iteration completed in time.
+	 * @return The {@code SearchResult}
+	 */
+	public SearchResult search(ChessMatch match, int maxDepth, long timeMillis) {
+		table.newSearch();
+		stopped = false;
+		return search(match, 1, maxDepth, timeMillis);
+	}
+
+	/**
+	 * Run the iterations from {@code startDepth} to {@code maxDepth} without starting a new table generation, so
+	 * several engines can search the same root over one shared table.
+	 */
+	SearchResult search(ChessMatch match, int startDepth, int maxDepth, long timeMillis) {
+		long start = System.nanoTime();
+		deadline = timeMillis > 0 ? start + timeMillis * 1_000_000L : Long.MAX_VALUE;
+		nodes = 0;
+		aborted = false;
+		for (int[] k : killers)
+			Arrays.fill(k, Move.NONE);
+		Arrays.fill(history, 0);
+
+		match.legalMoves(moveList);
+		if (moveList.isEmpty())
+			return new SearchResult(Move.NONE, match.getCheck() ? -MATE : 0, 0, 0, System.nanoTime() - start);
+
+		int bestMove = moveList.get(0);
+		int bestScore = 0;
+		int completed = 0;
+		for (int depth = startDepth; depth <= Math.min(maxDepth, MAX_PLY - 1); depth++) {
+			int score = alphaBeta(match, depth, -INFINITY, INFINITY, 0);
+			if (aborted)
+				break;
+			bestMove = rootBestMove;
+			bestScore = score;
+			completed = depth;
+			if (Math.abs(score) >= MATE_BOUND)
+				break;
+		}
+		return new SearchResult(bestMove, bestScore, completed, nodes, System.nanoTime() - start);
+	}
+
+	/**
+	 * Ask a running search to return as soon as possible with the last completed iteration.
+	 */
+	public void stop() {
+		stopped = true;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	private int alphaBeta(ChessMatch match, int depth, int alpha, int beta, int ply) {
+		if (depth <= 0 || ply >= MAX_PLY - 1)
+			return quiescence(match, alpha, beta, ply);
+		if (visit())
+			return 0;
+
+		long hash = match.getHash();
+		int tableMove = Move.NONE;
+		long entry = table.probe(hash);
+		if (entry != TranspositionTable.MISS) {
+			tableMove = TranspositionTable.move(entry);
+			if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+				int score = fromTable(TranspositionTable.score(entry), ply);
+				int bound = TranspositionTable.bound(entry);
+				if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+						|| (bound == TranspositionTable.UPPER_BOUND && score <= alpha))
+					return score;
+			}
+		}
+
+		int count = generate(match, ply, tableMove, false);
+		if (count == 0)
+			return match.getCheck() ? -MATE + ply : 0;
+		if (isMaterialDraw(match))
+			return 0;
+
+		int originalAlpha = alpha;
+		int bestScore = -INFINITY;
+		int bestMove = Move.NONE;
+		for (int i = 0; i < count; i++) {
+			int move = next(ply, i, count);
+			match.makeMove(move);
+			int score = -alphaBeta(match, depth - 1, -beta, -alpha, ply + 1);
+			match.unmakeMove();
+			if (aborted)
+				return 0;
+			if (score > bestScore) {
+				bestScore = score;
+				bestMove = move;
+				if (ply == 0)
+					rootBestMove = move;
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) {
+						if (!isCapture(match, move))
+							rememberQuiet(move, depth, ply);
+						break;
+					}
+				}
+			}
+		}
+
+		int bound = bestScore >= beta ? TranspositionTable.LOWER_BOUND
+				: bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+		table.store(hash, bestMove, toTable(bestScore, ply), depth, bound);
+		return bestScore;
+	}
+
+	private int quiescence(ChessMatch match, int alpha, int beta, int ply) {
+		if (visit())
+			return 0;
+
+		int count = generate(match, ply, Move.NONE, true);
+		if (count < 0)
+			return match.getCheck() ? -MATE + ply : 0;
+		int standPat = evaluate(match);
+		if (standPat >= beta || ply >= MAX_PLY - 1)
+			return standPat;
+		if (standPat > alpha)
+			alpha = standPat;
+
+		for (int i = 0; i < count; i++) {
+			int move = next(ply, i, count);
+			match.makeMove(move);
+			int score = -quiescence(match, -beta, -alpha, ply + 1);
+			match.unmakeMove();
+			if (aborted)
+				return 0;
+			if (score > alpha) {
+				alpha = score;
+				if (alpha >= beta)
+					break;
+			}
+		}
+		return alpha;
+	}
+
+	/**
+	 * Count a node and check the stop conditions every 1024 nodes.
+	 * @return {@code true} if the search must unwind
+	 */
+	private boolean visit() {
+		if ((++nodes & 1023) == 0 && (stopped || System.nanoTime() > deadline))
+			aborted = true;
+		return aborted;
+	}
+
+	/**
+	 * Fill this ply's move and ordering arrays with the legal moves of the side to move.
+	 * @return The number of moves kept; with {@code capturesOnly}, {@code -1} when there is no legal move at all
+	 */
+	private int generate(ChessMatch match, int ply, int tableMove, boolean capturesOnly) {
+		match.legalMoves(moveList);
+		if (moveList.isEmpty())
+			return capturesOnly ? -1 : 0;
+
+		long enemy = match.occupied(opponent(match.getCurrentPlayer()));
+		int[] moves = plyMoves[ply];
+		int[] order = plyOrder[ply];
+		int count = 0;
+		for (int i = 0; i < moveList.size(); i++) {
+			int move = moveList.get(i);
+			boolean capture = (enemy & (1L << Move.target(move))) != 0;
+			if (capturesOnly && !capture)
+				continue;
+			moves[count] = move;
+			if (move == tableMove)
+				order[count] = TABLE_MOVE_ORDER;
+			else if (capture)
+				order[count] = CAPTURE_ORDER;
+			else if (move == killers[ply][0])
+				order[count] = KILLER_ORDER + 1;
+			else if (move == killers[ply][1])
+				order[count] = KILLER_ORDER;
+			else
+				order[count] = history[move & 0xFFF];
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Selection sort step: move the best-ordered remaining move to {@code index} and return it.
+	 */
+	private int next(int ply, int index, int count) {
+		int[] moves = plyMoves[ply];
+		int[] order = plyOrder[ply];
+		int best = index;
+		for (int i = index + 1; i < count; i++)
+			if (order[i] > order[best])
+				best = i;
+		int move = moves[best];
+		moves[best] = moves[index];
+		moves[index] = move;
+		int o = order[best];
+		order[best] = order[index];
+		order[index] = o;
+		return move;
+	}
+
+	private void rememberQuiet(int move, int depth, int ply) {
+		history[move & 0xFFF] += depth * depth;
+		if (killers[ply][0] != move) {
+			killers[ply][1] = killers[ply][0];
+			killers[ply][0] = move;
+		}
+	}
+
+	private static boolean isCapture(ChessMatch match, int move) {
+		return (match.occupied(opponent(match.getCurrentPlayer())) & (1L << Move.target(move))) != 0;
+	}
+
+	private static boolean isMaterialDraw(ChessMatch match) {
+		return match.pieces(Color.WHITE, PieceType.ROOK) == 0 && match.pieces(Color.BLACK, PieceType.ROOK) == 0;
+	}
+
+	/**
+	 * Static evaluation from the side to move's point of view: material, rook mobility and, for the side ahead in
+	 * material, a bonus for driving the enemy king to the edge and approaching it with its own king.
+	 */
+	static int evaluate(ChessMatch match) {
+		long occupied = match.occupied(Color.WHITE) | match.occupied(Color.BLACK);
+		int score = side(match, Color.WHITE, occupied) - side(match, Color.BLACK, occupied);
+		return match.getCurrentPlayer() == Color.WHITE ? score : -score;
+	}
+
+	private static int side(ChessMatch match, Color color, long occupied) {
+		long rooks = match.pieces(color, PieceType.ROOK);
+		int score = Long.bitCount(rooks) * ROOK_VALUE;
+		while (rooks != 0) {
+			score += ROOK_MOBILITY * Long.bitCount(Attacks.rook(Long.numberOfTrailingZeros(rooks), occupied));
+			rooks &= rooks - 1;
+		}
+
+		Color enemy = opponent(color);
+		if (Long.bitCount(match.pieces(color, PieceType.ROOK)) > Long.bitCount(match.pieces(enemy, PieceType.ROOK))) {
+			long ownKing = match.pieces(color, PieceType.KING);
+			long enemyKing = match.pieces(enemy, PieceType.KING);
+			if (ownKing != 0 && enemyKing != 0) {
+				int own = Long.numberOfTrailingZeros(ownKing);
+				int other = Long.numberOfTrailingZeros(enemyKing);
+				score += 10 * centerDistance(other) + 4 * (14 - distance(own, other));
+			}
+		}
+		return score;
+	}
+
+	private static int centerDistance(int square) {
+		int row = ChessBoard.row(square);
+		int column = ChessBoard.column(square);
+		return Math.max(3 - row, row - 4) + Math.max(3 - column, column - 4);
+	}
+
+	private static int distance(int a, int b) {
+		return Math.abs(ChessBoard.row(a) - ChessBoard.row(b)) + Math.abs(ChessBoard.column(a) - ChessBoard.column(b));
+	}
+
+	private static Color opponent(Color color) {
+		return color == Color.WHITE ? Color.BLACK : Color.WHITE;
+	}
+
+	private static int toTable(int score, int ply) {
+		return score >= MATE_BOUND ? score + ply : score <= -MATE_BOUND ? score - ply : score;
+	}
+
+	private static int fromTable(int score, int ply) {
+		return score >= MATE_BOUND ? score - ply : score <= -MATE_BOUND ? score + ply : score;
+	}
+}
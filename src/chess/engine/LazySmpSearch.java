@@ -0,0 +1,78 @@
+package chess.engine;
+
+import chess.ChessMatch;
+
+/**
+ * A multi-threaded best-move search using Lazy SMP: every worker runs its own {@code Engine} on an independent copy
+ * of the root match, and all of them share one {@link TranspositionTable}. Helpers start one ply deeper on odd
+ * worker numbers, so workers spread over different depths and feed each other's move ordering and cutoffs through
+ * the table. The search ends when the main worker finishes; the deepest completed result wins.
+ */
+public class LazySmpSearch {
+
+	private TranspositionTable table;
+	private int threads;
+
+	public LazySmpSearch(int threads, TranspositionTable table) {
+		if (threads < 1)
+			throw new IllegalArgumentException("There must be at least 1 search thread.");
+		this.threads = threads;
+		this.table = table;
+	}
+
+	/**
+	 * Search with one worker per available processor.
+	 * @param table shared transposition table
+	 */
+	public LazySmpSearch(TranspositionTable table) {
+		this(Runtime.getRuntime().availableProcessors(), table);
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public TranspositionTable getTable() {
+		return table;
+	}
+
+	/**
+	 * Search the current position of {@code match}, which is only read to create each worker's copy.
+	 * @param match A {@code ChessMatch} object
+	 * @param maxDepth deepest iteration to run
+	 * @param timeMillis time budget in milliseconds, or {@code 0} for no limit
+	 * @return The deepest completed {@code SearchResult}, with the node count summed over every worker
+	 * @throws InterruptedException if interrupted while waiting for the workers
+	 */
+	public SearchResult search(ChessMatch match, int maxDepth, long timeMillis) throws InterruptedException {
+		table.newSearch();
+		Engine[] engines = new Engine[threads];
+		SearchResult[] results = new SearchResult[threads];
+		Thread[] workers = new Thread[threads];
+		long start = System.nanoTime();
+		for (int i = 0; i < threads; i++) {
+			int worker = i;
+			ChessMatch copy = new ChessMatch(match);
+			engines[i] = new Engine(table);
+			workers[i] = new Thread(() -> results[worker] = engines[worker].search(copy, 1 + (worker & 1), maxDepth, timeMillis),
+					"lazy-smp-" + i);
+			workers[i].start();
+		}
+
+		workers[0].join();
+		for (int i = 1; i < threads; i++)
+			engines[i].stop();
+		for (int i = 1; i < threads; i++)
+			workers[i].join();
+		long elapsed = System.nanoTime() - start;
+
+		SearchResult best = results[0];
+		long nodes = 0;
+		for (SearchResult result : results) {
+			nodes += result.getNodes();
+			if (result.getDepth() > best.getDepth())
+				best = result;
+		}
+		return new SearchResult(best.getBestMove(), best.getScore(), best.getDepth(), nodes, elapsed);
+	}
+}
@@ -0,0 +1,27 @@
+package chess.engine;
+
+/**
+ * Decides whether a new transposition table entry may overwrite the entry already stored in its slot.
+ */
+public enum ReplacementPolicy {
+
+	/**
+	 * Always keep the newest entry.
+	 */
+	ALWAYS,
+
+	/**
+	 * Keep the stored entry when it was searched deeper during the current search, otherwise replace it. Entries
+	 * left over from earlier searches are always replaced.
+	 */
+	DEPTH_PREFERRED;
+
+	boolean replaces(int storedDepth, int storedGeneration, int depth, int generation) {
+		switch (this) {
+		case DEPTH_PREFERRED:
+			return storedGeneration != generation || depth >= storedDepth;
+		default:
+			return true;
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package chess.engine;
+
+import chess.ChessPosition;
+import chess.Move;
+
+/**
+ * The outcome of a search: best move, its score from the side to move's point of view, and search statistics.
+ */
+public class SearchResult {
+
+	private int bestMove;
+	private int score;
+	private int depth;
+	private long nodes;
+	private long elapsedNanos;
+
+	public SearchResult(int bestMove, int score, int depth, long nodes, long elapsedNanos) {
+		this.bestMove = bestMove;
+		this.score = score;
+		this.depth = depth;
+		this.nodes = nodes;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * @return The best move encoded as described in {@link Move}, or {@link Move#NONE} if the side to move has no
+	 *         legal move
+	 */
+	public int getBestMove() {
+		return bestMove;
+	}
+
+	public ChessPosition getSource() {
+		return Move.sourcePosition(bestMove);
+	}
+
+	public ChessPosition getTarget() {
+		return Move.targetPosition(bestMove);
+	}
+
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * @return The deepest fully completed iteration
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * @return The wall-clock search time in nanoseconds, for aggregating many short searches without truncation
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedNanos / 1_000_000;
+	}
+
+	public long getNodesPerSecond() {
+		return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s score %d depth %d nodes %d time %d ms (%d nodes/s)",
+				bestMove == Move.NONE ? "(none)" : Move.toString(bestMove), score, depth, nodes, getElapsedMillis(),
+				getNodesPerSecond());
+	}
+}
@@ -0,0 +1,119 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table of searched positions keyed by {@link chess.ChessMatch#getHash()}. Each slot is two
+ * {@code long}s: the packed entry and the key XOR the entry. A reader only accepts an entry when both halves agree,
+ * so the table needs no locks even when several search threads share it: a torn write from a racing thread simply
+ * reads as a miss.
+ * <p>
+ * Entry layout: move in bits 0-15, score in bits 16-31, depth in bits 32-39, bound in bits 40-41 and search
+ * generation in bits 48-55.
+ */
+public class TranspositionTable {
+
+	public static final int EXACT = 1;
+	public static final int LOWER_BOUND = 2;
+	public static final int UPPER_BOUND = 3;
+
+	/**
+	 * Returned by {@link #probe(long)} when the position is not stored. No real entry is 0 since its bound is never
+	 * 0.
+	 */
+	public static final long MISS = 0L;
+
+	private long[] keys;
+	private long[] entries;
+	private int mask;
+	private ReplacementPolicy policy;
+	private volatile int generation;
+
+	/**
+	 * @param sizeMegabytes table size in megabytes, rounded down to a power of two number of slots
+	 * @param policy replacement policy for colliding entries
+	 */
+	public TranspositionTable(int sizeMegabytes, ReplacementPolicy policy) {
+		long slots = Long.highestOneBit(Math.max(1L, sizeMegabytes * 1024L * 1024L / 16));
+		if (slots > (1 << 30))
+			slots = 1 << 30;
+		this.keys = new long[(int) slots];
+		this.entries = new long[(int) slots];
+		this.mask = (int) slots - 1;
+		this.policy = policy;
+	}
+
+	public int getSlots() {
+		return entries.length;
+	}
+
+	public ReplacementPolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Start a new search generation, so entries from earlier searches become replaceable.
+	 */
+	public void newSearch() {
+		generation = (generation + 1) & 0xFF;
+	}
+
+	public void clear() {
+		Arrays.fill(keys, 0L);
+		Arrays.fill(entries, 0L);
+	}
+
+	/**
+	 * @param hash position hash
+	 * @return The packed entry for {@code hash}, or {@link #MISS}
+	 */
+	public long probe(long hash) {
+		int index = (int) hash & mask;
+		long entry = entries[index];
+		return (keys[index] ^ entry) == hash ? entry : MISS;
+	}
+
+	public void store(long hash, int move, int score, int depth, int bound) {
+		int index = (int) hash & mask;
+		long stored = entries[index];
+		int gen = generation;
+		if (stored != MISS && (keys[index] ^ stored) != hash && !policy.replaces(depth(stored), generation(stored), depth, gen))
+			return;
+		long entry = (move & 0xFFFFL) | ((score & 0xFFFFL) << 16) | ((long) (depth & 0xFF) << 32) | ((long) bound << 40)
+				| ((long) gen << 48);
+		entries[index] = entry;
+		keys[index] = hash ^ entry;
+	}
+
+	/**
+	 * @return Permille of the first thousand slots filled during the current search generation
+	 */
+	public int hashfull() {
+		int used = 0;
+		int sample = Math.min(1000, entries.length);
+		for (int i = 0; i < sample; i++)
+			if (entries[i] != MISS && generation(entries[i]) == generation)
+				used++;
+		return used * 1000 / sample;
+	}
+
+	public static int move(long entry) {
+		return (int) (entry & 0xFFFF);
+	}
+
+	public static int score(long entry) {
+		return (short) (entry >>> 16);
+	}
+
+	public static int depth(long entry) {
+		return (int) (entry >>> 32) & 0xFF;
+	}
+
+	public static int bound(long entry) {
+		return (int) (entry >>> 40) & 0x3;
+	}
+
+	private static int generation(long entry) {
+		return (int) (entry >>> 48) & 0xFF;
+	}
+}
@@ -0,0 +1,16 @@
+package chess.io;
+
+import java.io.IOException;
+
+/**
+ * Thrown by {@link GameReader} when an archive is malformed: truncated, oversized, or holding a move that is not
+ * legal in its game.
+ */
+public class GameFormatException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	public GameFormatException(String msg) {
+		super(msg);
+	}
+}
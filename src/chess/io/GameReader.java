@@ -0,0 +1,416 @@
+package chess.io;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import chess.ChessBoard;
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.Color;
+import chess.Move;
+import chess.MoveList;
+import chess.PieceType;
+
+/**
+ * Streams the games of an archive written by {@link GameWriter}, or any PGN file, to a {@link GameVisitor}. The file
+ * is memory-mapped in windows and scanned byte by byte: moves are decoded straight from the mapped bytes into
+ * encoded moves, with no {@code String} per token.
+ * <p>
+ * PGN movetext may use SAN ({@code Rc3}, {@code Rcxc7+}) or coordinate notation ({@code c1c3}, {@code Rc1-c3}).
+ * Every PGN game is replayed to resolve SAN, starting from its {@code FEN} tag if it has one, so illegal moves are
+ * reported through {@link GameVisitor#error(int, String)}. When validating, binary games are replayed too, and an
+ * illegal move there means a corrupt archive, so it throws a {@link GameFormatException}. Trusted archives can be
+ * read without validation: binary moves are then only range-checked and passed straight through, and PGN moves
+ * with a full source square skip legal move generation. Comments, variations and NAGs are skipped. A single game
+ * must fit in {@value #MAX_GAME_BYTES} bytes.
+ */
+public class GameReader {
+
+	public static final int MAX_GAME_BYTES = 1 << 20;
+
+	private static final long WINDOW_BYTES = 1L << 30;
+
+	private FileChannel channel;
+	private long fileSize;
+	private MappedByteBuffer window;
+	private long windowStart;
+	private int pos;
+	private int limit;
+
+	private GameVisitor visitor;
+	private boolean validate;
+	private ChessMatch chessMatch;
+	private MoveList moves;
+	private boolean inGame;
+	private int moveIndex;
+	private boolean movetext;
+	private boolean skipping;
+
+	private GameReader(FileChannel channel, GameVisitor visitor, boolean validate) throws IOException {
+		this.channel = channel;
+		this.fileSize = channel.size();
+		this.visitor = visitor;
+		this.validate = validate;
+		this.moves = new MoveList();
+	}
+
+	/**
+	 * Read every game in {@code file}, detecting the format from its first bytes, and check every move's legality.
+	 * @param file archive file
+	 * @param visitor receives the games
+	 * @throws GameFormatException if the file is malformed
+	 * @throws IOException if the file can't be read
+	 */
+	public static void read(Path file, GameVisitor visitor) throws IOException {
+		read(file, visitor, true);
+	}
+
+	/**
+	 * Read every game in {@code file}, detecting the format from its first bytes.
+	 * @param file archive file
+	 * @param visitor receives the games
+	 * @param validate whether to check every move's legality. Pass {@code false} only for trusted archives, such
+	 *            as ones written by {@link GameWriter}.
+	 * @throws GameFormatException if the file is malformed
+	 * @throws IOException if the file can't be read
+	 */
+	public static void read(Path file, GameVisitor visitor, boolean validate) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			GameReader reader = new GameReader(channel, visitor, validate);
+			reader.map(0);
+			if (reader.isBinary())
+				reader.readBinary();
+			else
+				reader.readPgn();
+		}
+	}
+
+	private void map(long start) throws IOException {
+		windowStart = start;
+		long size = Math.min(WINDOW_BYTES, fileSize - start);
+		window = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+		pos = 0;
+		limit = (int) size;
+	}
+
+	/**
+	 * Remap so the next game is fully inside the window, unless the file ends first.
+	 */
+	private void ensureGameWindow() throws IOException {
+		if (limit - pos < MAX_GAME_BYTES && windowStart + limit < fileSize)
+			map(windowStart + pos);
+	}
+
+	private boolean isBinary() {
+		if (limit < GameWriter.BINARY_MAGIC.length)
+			return false;
+		for (int i = 0; i < GameWriter.BINARY_MAGIC.length; i++)
+			if (window.get(i) != GameWriter.BINARY_MAGIC[i])
+				return false;
+		return true;
+	}
+
+	private void readBinary() throws IOException {
+		pos = GameWriter.BINARY_MAGIC.length;
+		while (true) {
+			ensureGameWindow();
+			if (pos == limit)
+				return;
+			if (limit - pos < 3)
+				throw new GameFormatException("Truncated game at byte " + (windowStart + pos));
+			int count = window.getShort(pos) & 0xFFFF;
+			if (limit - pos < 3 + 2 * count)
+				throw new GameFormatException("Truncated game at byte " + (windowStart + pos));
+			pos += 2;
+			visitor.beginGame();
+			if (validate)
+				chessMatch = new ChessMatch();
+			for (int i = 0; i < count; i++, pos += 2) {
+				int move = window.getShort(pos) & 0xFFFF;
+				if (validate) {
+					chessMatch.legalMoves(moves);
+					if (!moves.contains(move))
+						throw new GameFormatException("Illegal move " + i + " at byte " + (windowStart + pos));
+					chessMatch.makeMove(move);
+				} else if (move >>> 12 != 0 || Move.source(move) == Move.target(move)) {
+					throw new GameFormatException("Bad move " + i + " at byte " + (windowStart + pos));
+				}
+				visitor.move(move);
+			}
+			int result = window.get(pos++);
+			if (result < 0 || result >= GameWriter.RESULTS.length)
+				throw new GameFormatException("Bad result code " + result + " at byte " + (windowStart + pos - 1));
+			visitor.endGame(GameWriter.RESULTS[result]);
+		}
+	}
+
+	private void readPgn() throws IOException {
+		while (true) {
+			if (!inGame)
+				ensureGameWindow();
+			if (pos == limit) {
+				if (windowStart + limit < fileSize)
+					throw new GameFormatException("Game longer than " + MAX_GAME_BYTES + " bytes at byte " + (windowStart + pos));
+				if (inGame)
+					endGame(GameWriter.UNFINISHED);
+				return;
+			}
+			int c = window.get(pos);
+			if (c <= ' ') {
+				pos++;
+			} else if (c == '[') {
+				if (inGame && movetext)
+					endGame(GameWriter.UNFINISHED);
+				beginGame();
+				readTag();
+			} else if (c == '{') {
+				skipPast('}');
+			} else if (c == ';' || c == '%') {
+				skipPast('\n');
+			} else if (c == '(') {
+				skipVariation();
+			} else if (c == '$') {
+				pos++;
+				while (pos < limit && isDigit(window.get(pos)))
+					pos++;
+			} else if (c == '*') {
+				pos++;
+				endGame(GameWriter.UNFINISHED);
+			} else if (isDigit(c)) {
+				readNumber();
+			} else {
+				beginGame();
+				readMove();
+			}
+		}
+	}
+
+	private void beginGame() {
+		if (inGame)
+			return;
+		inGame = true;
+		moveIndex = 0;
+		movetext = false;
+		skipping = false;
+		chessMatch = new ChessMatch();
+		visitor.beginGame();
+	}
+
+	private void endGame(String result) {
+		beginGame();
+		visitor.endGame(result);
+		inGame = false;
+	}
+
+	private void readTag() throws IOException {
+		pos++;
+		int nameStart = pos;
+		while (pos < limit && window.get(pos) > ' ' && window.get(pos) != '"' && window.get(pos) != ']')
+			pos++;
+		String name = text(nameStart, pos);
+		while (pos < limit && window.get(pos) != '"' && window.get(pos) != ']')
+			pos++;
+		StringBuilder value = new StringBuilder();
+		if (pos < limit && window.get(pos) == '"') {
+			int start = ++pos;
+			while (pos < limit && window.get(pos) != '"') {
+				if (window.get(pos) == '\\' && pos + 1 < limit) {
+					value.append(text(start, pos));
+					start = ++pos;
+				}
+				pos++;
+			}
+			value.append(text(start, pos));
+		}
+		skipPast(']');
+		if (name.equals("FEN") && !skipping)
+			startFrom(value.toString(), nameStart - 1);
+		visitor.tag(name, value.toString());
+	}
+
+	/**
+	 * Replay the current game from a {@code FEN} tag instead of the initial position.
+	 */
+	private void startFrom(String fen, int tagStart) {
+		if (moveIndex > 0) {
+			moveError("FEN tag after the first move at byte " + (windowStart + tagStart));
+			return;
+		}
+		try {
+			chessMatch = new ChessMatch(fen);
+		} catch (ChessException e) {
+			moveError("Bad FEN tag at byte " + (windowStart + tagStart) + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * A move number ({@code 12.} or {@code 12...}) or a result ({@code 1-0}, {@code 0-1} or {@code 1/2-1/2}).
+	 */
+	private void readNumber() {
+		movetext = true;
+		int start = pos;
+		while (pos < limit && isDigit(window.get(pos)))
+			pos++;
+		if (pos < limit && window.get(pos) == '.') {
+			while (pos < limit && window.get(pos) == '.')
+				pos++;
+			return;
+		}
+		while (pos < limit && window.get(pos) > ' ' && window.get(pos) != '[' && window.get(pos) != '{')
+			pos++;
+		if (matches(start, GameWriter.WHITE_WINS))
+			endGame(GameWriter.WHITE_WINS);
+		else if (matches(start, GameWriter.BLACK_WINS))
+			endGame(GameWriter.BLACK_WINS);
+		else if (matches(start, GameWriter.DRAW))
+			endGame(GameWriter.DRAW);
+		else
+			moveError("Unexpected token at byte " + (windowStart + start));
+	}
+
+	private void readMove() {
+		movetext = true;
+		int start = pos;
+		while (pos < limit && !isDelimiter(window.get(pos)))
+			pos++;
+		if (skipping)
+			return;
+		int move = parseMove(start, pos);
+		if (move < 0)
+			return;
+		visitor.move(move);
+		chessMatch.makeMove(move);
+		moveIndex++;
+	}
+
+	/**
+	 * Decode the move between {@code start} and {@code end} against the current position.
+	 * @return The encoded move, or {@code -1} after reporting an error
+	 */
+	private int parseMove(int start, int end) {
+		while (end > start && isAnnotation(window.get(end - 1)))
+			end--;
+		int i = start;
+		PieceType type = null;
+		if (i < end && window.get(i) == 'K') {
+			type = PieceType.KING;
+			i++;
+		} else if (i < end && window.get(i) == 'R') {
+			type = PieceType.ROOK;
+			i++;
+		}
+
+		// Up to two coordinates: an optional (possibly partial) source, then the target
+		int hintFile = -1;
+		int hintRank = -1;
+		int file = -1;
+		int rank = -1;
+		for (; i < end; i++) {
+			int c = window.get(i);
+			if (c >= 'a' && c <= 'h') {
+				if (file >= 0 || rank >= 0) {
+					hintFile = file;
+					hintRank = rank;
+					rank = -1;
+				}
+				file = c - 'a';
+			} else if (c >= '1' && c <= '8') {
+				if (rank >= 0) {
+					hintFile = file;
+					hintRank = rank;
+					file = -1;
+				}
+				rank = c - '1';
+			} else if (c != 'x' && c != '-' && c != ':') {
+				return moveError("Unreadable move at byte " + (windowStart + start));
+			}
+		}
+		if (file < 0 || rank < 0)
+			return moveError("Unreadable move at byte " + (windowStart + start));
+
+		int target = ChessBoard.square(ChessBoard.SIZE - 1 - rank, file);
+		Color color = chessMatch.getCurrentPlayer();
+		long pieces = type == null ? chessMatch.occupied(color) : chessMatch.pieces(color, type);
+		if (!validate && hintFile >= 0 && hintRank >= 0) {
+			int source = ChessBoard.square(ChessBoard.SIZE - 1 - hintRank, hintFile);
+			if ((pieces & (1L << source)) == 0 || (chessMatch.occupied(color) & (1L << target)) != 0)
+				return moveError("Illegal move at byte " + (windowStart + start));
+			return Move.of(source, target);
+		}
+		chessMatch.legalMoves(moves);
+		int found = -1;
+		for (int m = 0; m < moves.size(); m++) {
+			int move = moves.get(m);
+			int source = Move.source(move);
+			if (Move.target(move) != target || (pieces & (1L << source)) == 0)
+				continue;
+			if (hintFile >= 0 && ChessBoard.column(source) != hintFile)
+				continue;
+			if (hintRank >= 0 && ChessBoard.SIZE - 1 - ChessBoard.row(source) != hintRank)
+				continue;
+			if (found >= 0)
+				return moveError("Ambiguous move at byte " + (windowStart + start));
+			found = move;
+		}
+		if (found < 0)
+			return moveError("Illegal move at byte " + (windowStart + start));
+		return found;
+	}
+
+	private int moveError(String message) {
+		visitor.error(moveIndex, message);
+		skipping = true;
+		return -1;
+	}
+
+	private void skipPast(int terminator) {
+		while (pos < limit && window.get(pos) != terminator)
+			pos++;
+		if (pos < limit)
+			pos++;
+	}
+
+	private void skipVariation() {
+		int depth = 0;
+		do {
+			int c = window.get(pos++);
+			if (c == '(')
+				depth++;
+			else if (c == ')')
+				depth--;
+			else if (c == '{')
+				skipPast('}');
+		} while (depth > 0 && pos < limit);
+	}
+
+	private boolean matches(int start, String token) {
+		if (pos - start != token.length())
+			return false;
+		for (int i = 0; i < token.length(); i++)
+			if (window.get(start + i) != token.charAt(i))
+				return false;
+		return true;
+	}
+
+	private String text(int start, int end) {
+		byte[] bytes = new byte[end - start];
+		window.get(start, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static boolean isDigit(int c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isDelimiter(int c) {
+		return c <= ' ' || c == '(' || c == ')' || c == '{' || c == '[' || c == ';';
+	}
+
+	private static boolean isAnnotation(int c) {
+		return c == '+' || c == '#' || c == '!' || c == '?';
+	}
+}
@@ -0,0 +1,40 @@
+package chess.io;
+
+/**
+ * Receives the games read by a {@link GameReader}, in file order.
+ */
+public interface GameVisitor {
+
+	void beginGame();
+
+	/**
+	 * A PGN tag pair of the current game. Binary archives carry no tags.
+	 * @param name tag name
+	 * @param value tag value
+	 */
+	default void tag(String name, String value) {
+	}
+
+	/**
+	 * The next move of the current game, encoded as described in {@link chess.Move}. Use
+	 * {@link chess.Move#sourcePosition(int)} and {@link chess.Move#targetPosition(int)} for the
+	 * {@code ChessPosition} pair.
+	 * @param move encoded move
+	 */
+	void move(int move);
+
+	/**
+	 * The move at {@code moveIndex} could not be read or is illegal. The rest of the game's moves are skipped, but
+	 * {@link #endGame(String)} is still called.
+	 * @param moveIndex zero-based index of the bad move
+	 * @param message what went wrong
+	 */
+	default void error(int moveIndex, String message) {
+	}
+
+	/**
+	 * @param result one of {@link GameWriter#WHITE_WINS}, {@link GameWriter#BLACK_WINS}, {@link GameWriter#DRAW} or
+	 *            {@link GameWriter#UNFINISHED}
+	 */
+	void endGame(String result);
+}
@@ -0,0 +1,256 @@
+package chess.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.Color;
+import chess.Move;
+import chess.MoveList;
+import chess.PieceType;
+
+/**
+ * Appends games to a game archive, either as PGN or in the compact binary variant. Each live game is recorded
+ * through its own {@link Game}, which writes every move as it is played to a {@code .part} file next to the archive.
+ * When the game ends it is appended to the archive in a single write and its part file is deleted, so many games can
+ * be recorded at once into one archive, and a game still being played survives a crash up to its last move.
+ * <p>
+ * Binary layout: the magic {@code CHSB} and a version byte, then per game an unsigned 16-bit move count, that many
+ * 16-bit moves encoded as described in {@link Move}, and a result byte (0 unfinished, 1 white wins, 2 black wins,
+ * 3 draw). Numbers are big-endian.
+ */
+public class GameWriter implements Closeable {
+
+	public static final String WHITE_WINS = "1-0";
+	public static final String BLACK_WINS = "0-1";
+	public static final String DRAW = "1/2-1/2";
+	public static final String UNFINISHED = "*";
+
+	static final byte[] BINARY_MAGIC = { 'C', 'H', 'S', 'B', 1 };
+	static final String[] RESULTS = { UNFINISHED, WHITE_WINS, BLACK_WINS, DRAW };
+
+	private static final int MAX_LINE = 79;
+
+	public enum Format {
+		PGN,
+		BINARY;
+	}
+
+	public static final String PART_EXTENSION = ".part";
+
+	private FileChannel channel;
+	private Path file;
+	private Format format;
+
+	/**
+	 * Open {@code file} for appending, creating it if needed.
+	 * @param file archive file
+	 * @param format archive format. Must match the existing content when appending.
+	 * @throws IOException if the file can't be opened
+	 */
+	public GameWriter(Path file, Format format) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		this.file = file;
+		this.format = format;
+		if (format == Format.BINARY && channel.size() == 0)
+			append(ByteBuffer.wrap(BINARY_MAGIC));
+	}
+
+	public Format getFormat() {
+		return format;
+	}
+
+	/**
+	 * Start recording a game from the initial position.
+	 * @return A new {@code Game}
+	 * @throws IOException if the game's part file can't be created
+	 */
+	public Game newGame() throws IOException {
+		return new Game();
+	}
+
+	/**
+	 * Force every appended game to the storage device.
+	 * @throws IOException if the sync fails
+	 */
+	public void sync() throws IOException {
+		channel.force(false);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private synchronized void append(ByteBuffer buffer) throws IOException {
+		write(channel, buffer);
+	}
+
+	private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+	}
+
+	static int resultCode(String result) {
+		for (int i = 0; i < RESULTS.length; i++)
+			if (RESULTS[i].equals(result))
+				return i;
+		throw new IllegalArgumentException("Unknown result: " + result);
+	}
+
+	/**
+	 * One game being recorded. Moves are checked against a private replay of the game, which also provides what
+	 * SAN needs: piece letter, disambiguation, capture and check marks. Only the archive's format is produced.
+	 */
+	public class Game {
+
+		private ChessMatch chessMatch;
+		private MoveList moves;
+		private StringBuilder tags;
+		private Path partFile;
+		private FileChannel part;
+		private ByteBuffer buffer;
+		private int lineLength;
+		private int count;
+
+		private Game() throws IOException {
+			chessMatch = new ChessMatch();
+			moves = new MoveList();
+			tags = new StringBuilder();
+			partFile = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName() + ".", PART_EXTENSION);
+			part = FileChannel.open(partFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+			buffer = ByteBuffer.allocate(64);
+		}
+
+		/**
+		 * Add a PGN tag pair. Ignored by the binary format.
+		 * @param name tag name
+		 * @param value tag value
+		 * @return This {@code Game}
+		 */
+		public Game tag(String name, String value) {
+			if (format == Format.PGN)
+				tags.append('[').append(name).append(" \"").append(value.replace("\\", "\\\\").replace("\"", "\\\"")).append("\"]\n");
+			return this;
+		}
+
+		/**
+		 * Record the next move and write it to the game's part file.
+		 * @param move encoded move
+		 * @return The move in SAN, or {@code null} for a binary archive
+		 * @throws ChessException if the move is not legal in the game's current position
+		 * @throws IOException if the part file can't be written
+		 */
+		public String move(int move) throws IOException {
+			chessMatch.legalMoves(moves);
+			if (!moves.contains(move))
+				throw new ChessException("Illegal move: " + Move.toString(move));
+			if (count == 0xFFFF)
+				throw new ChessException("A game can hold at most " + 0xFFFF + " moves.");
+
+			String san = null;
+			buffer.clear();
+			if (format == Format.BINARY) {
+				buffer.putShort((short) move);
+			} else {
+				san = toSan(move);
+				if (chessMatch.getCurrentPlayer() == Color.WHITE)
+					appendToken(((chessMatch.getTurn() + 1) / 2) + ".");
+				appendToken(san);
+			}
+			write(part, buffer.flip());
+			count++;
+			chessMatch.makeMove(move);
+			return san;
+		}
+
+		/**
+		 * Finish the game, append it to the archive and delete its part file.
+		 * @param result one of {@link GameWriter#WHITE_WINS}, {@link GameWriter#BLACK_WINS}, {@link GameWriter#DRAW}
+		 *            or {@link GameWriter#UNFINISHED}
+		 * @throws IOException if the append fails
+		 */
+		public void end(String result) throws IOException {
+			int code = resultCode(result);
+			part.close();
+			byte[] body = Files.readAllBytes(partFile);
+			ByteBuffer game;
+			if (format == Format.BINARY) {
+				game = ByteBuffer.allocate(2 + body.length + 1);
+				game.putShort((short) count).put(body).put((byte) code);
+			} else {
+				byte[] head = (tags + "[Result \"" + result + "\"]\n\n").getBytes(StandardCharsets.UTF_8);
+				String separator = lineLength == 0 ? "" : lineLength + 1 + result.length() > MAX_LINE ? "\n" : " ";
+				byte[] tail = (separator + result + "\n\n").getBytes(StandardCharsets.UTF_8);
+				game = ByteBuffer.allocate(head.length + body.length + tail.length);
+				game.put(head).put(body).put(tail);
+			}
+			append(game.flip());
+			Files.delete(partFile);
+		}
+
+		private void appendToken(String token) {
+			if (lineLength > 0) {
+				if (lineLength + 1 + token.length() > MAX_LINE) {
+					buffer.put((byte) '\n');
+					lineLength = 0;
+				} else {
+					buffer.put((byte) ' ');
+					lineLength++;
+				}
+			}
+			buffer.put(token.getBytes(StandardCharsets.US_ASCII));
+			lineLength += token.length();
+		}
+
+		private String toSan(int move) {
+			Color color = chessMatch.getCurrentPlayer();
+			int source = Move.source(move);
+			int target = Move.target(move);
+			PieceType type = (chessMatch.pieces(color, PieceType.KING) & (1L << source)) != 0 ? PieceType.KING : PieceType.ROOK;
+			StringBuilder sb = new StringBuilder(8).append(type == PieceType.KING ? 'K' : 'R');
+
+			boolean ambiguous = false;
+			boolean sameFile = false;
+			boolean sameRank = false;
+			long samePieces = chessMatch.pieces(color, type);
+			for (int i = 0; i < moves.size(); i++) {
+				int other = moves.get(i);
+				int otherSource = Move.source(other);
+				if (other == move || Move.target(other) != target || (samePieces & (1L << otherSource)) == 0)
+					continue;
+				ambiguous = true;
+				sameFile |= (otherSource & 7) == (source & 7);
+				sameRank |= (otherSource >>> 3) == (source >>> 3);
+			}
+			String from = Move.sourcePosition(move).toString();
+			if (ambiguous && (!sameFile || sameRank))
+				sb.append(from.charAt(0));
+			if (ambiguous && sameFile)
+				sb.append(from.charAt(1));
+
+			if ((chessMatch.occupied(opponent(color)) & (1L << target)) != 0)
+				sb.append('x');
+			sb.append(Move.targetPosition(move));
+
+			chessMatch.makeMove(move);
+			if (chessMatch.getCheck()) {
+				chessMatch.legalMoves(moves);
+				sb.append(moves.isEmpty() ? '#' : '+');
+			}
+			chessMatch.unmakeMove();
+			return sb.toString();
+		}
+	}
+
+	private static Color opponent(Color color) {
+		return color == Color.WHITE ? Color.BLACK : Color.WHITE;
+	}
+}
@@ -0,0 +1,419 @@
+package chess.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.LockSupport;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.Move;
+
+/**
+ * Keeps one {@link MatchJournal} file per match in a directory and commits them in batches: a single commit thread
+ * wakes every interval, writes the moves appended to every journal since the last commit, then syncs each of those
+ * files in turn. An append only copies two bytes into memory; callers that need durability wait for their ticket
+ * with {@link MatchJournal#awaitDurable(long)}.
+ * <p>
+ * A sync is shared by every move of one match in the interval, not across matches: with {@code N} matches moving in
+ * an interval, a commit costs {@code N} file syncs, so commit latency grows with the number of active matches. The
+ * {@code JournalCommit} benchmark measures that cost.
+ * <p>
+ * A journal attached to a match starts with a header holding the match's FEN, so a match that didn't start from the
+ * initial position is rebuilt from where it started.
+ * <p>
+ * Once closed, the manager and its journals reject every further use with an {@code IllegalStateException}, so a
+ * move is never silently left out of its journal.
+ */
+public class JournalManager implements Closeable {
+
+	public static final String EXTENSION = ".journal";
+
+	/**
+	 * Starts a journal header. Its first byte is above {@code 0x0F}, so it can't be mistaken for a move, whose
+	 * 16-bit big-endian encoding never sets the top four bits.
+	 */
+	static final byte[] HEADER_MAGIC = { 'C', 'H', 'S', 'J' };
+
+	private Path directory;
+	private long intervalNanos;
+	private Thread committer;
+
+	private Object lock;
+	private List<MatchJournal> journals;
+	private List<MatchJournal> dirtyJournals;
+	private List<MatchJournal> batch;
+	private long appended;
+	private long durable;
+	private boolean closed;
+
+	/**
+	 * @param directory journal directory, created if needed
+	 * @param commitIntervalMicros time between group commits in microseconds
+	 * @throws IOException if the directory can't be created
+	 */
+	public JournalManager(Path directory, long commitIntervalMicros) throws IOException {
+		Files.createDirectories(directory);
+		this.directory = directory;
+		this.intervalNanos = commitIntervalMicros * 1000L;
+		this.lock = new Object();
+		this.journals = new ArrayList<MatchJournal>();
+		this.dirtyJournals = new ArrayList<MatchJournal>();
+		this.batch = new ArrayList<MatchJournal>();
+		this.committer = new Thread(this::commitLoop, "journal-commit");
+		this.committer.setDaemon(true);
+		this.committer.start();
+	}
+
+	/**
+	 * Open the journal of a match for appending, creating it if needed. A journal created here has no header, so
+	 * its moves are replayed from the initial position; use {@link #attach(String, ChessMatch)} for a match that
+	 * started elsewhere.
+	 * @param matchId match identifier, used as the file name
+	 * @return The {@code MatchJournal}
+	 * @throws IllegalStateException if the manager is closed or the match's journal is already open
+	 * @throws IOException if the file can't be opened
+	 */
+	public MatchJournal open(String matchId) throws IOException {
+		if (!matchId.matches("[A-Za-z0-9._-]+"))
+			throw new IllegalArgumentException("Invalid match id: " + matchId);
+		checkOpenable(matchId);
+		FileChannel channel = FileChannel.open(directory.resolve(matchId + EXTENSION), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		MatchJournal journal = new MatchJournal(matchId, this, channel);
+		synchronized (lock) {
+			try {
+				checkOpenable(matchId);
+			} catch (IllegalStateException e) {
+				channel.close();
+				throw e;
+			}
+			journals.add(journal);
+		}
+		return journal;
+	}
+
+	private void checkOpenable(String matchId) {
+		synchronized (lock) {
+			if (closed)
+				throw new IllegalStateException("The journal manager is closed.");
+			for (MatchJournal journal : journals)
+				if (journal.getMatchId().equals(matchId))
+					throw new IllegalStateException("The journal of match " + matchId + " is already open.");
+		}
+	}
+
+	/**
+	 * Open the journal of a match and append every move the match accepts from now on. A new journal first gets a
+	 * header with the match's current position, written and synced before this returns.
+	 * @param matchId match identifier
+	 * @param chessMatch A {@code ChessMatch} object
+	 * @return The {@code MatchJournal}
+	 * @throws IllegalStateException if the manager is closed or the match's journal is already open
+	 * @throws IOException if the file can't be opened or the header can't be written
+	 */
+	public MatchJournal attach(String matchId, ChessMatch chessMatch) throws IOException {
+		MatchJournal journal = open(matchId);
+		try {
+			if (journal.isEmpty())
+				journal.writeHeader(header(chessMatch.toFen()));
+		} catch (IOException e) {
+			journal.close();
+			throw e;
+		}
+		journal.attach(chessMatch);
+		return journal;
+	}
+
+	private static ByteBuffer header(String fen) {
+		byte[] bytes = fen.getBytes(StandardCharsets.US_ASCII);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_MAGIC.length + 2 + bytes.length);
+		return header.put(HEADER_MAGIC).putShort((short) bytes.length).put(bytes).flip();
+	}
+
+	/**
+	 * @param matchId match identifier
+	 * @return The open journal of a match, such as one attached by {@link #recover()}, or {@code null}
+	 */
+	public MatchJournal journal(String matchId) {
+		synchronized (lock) {
+			for (MatchJournal journal : journals)
+				if (journal.getMatchId().equals(matchId))
+					return journal;
+			return null;
+		}
+	}
+
+	/**
+	 * Close the journal of a match that ended and delete its file, so it is not recovered again.
+	 * @param journal A {@code MatchJournal} of this manager
+	 * @throws IOException if the journal can't be closed or deleted
+	 */
+	public void delete(MatchJournal journal) throws IOException {
+		try {
+			journal.close();
+		} finally {
+			Files.deleteIfExists(directory.resolve(journal.getMatchId() + EXTENSION));
+		}
+	}
+
+	/**
+	 * Rebuild every journaled match by replaying its moves from the position in its header, or from the initial
+	 * position for a journal without one, then attach each journal so new moves keep being appended. A journal is
+	 * truncated at its first incomplete or illegal move, which is what a crash during a write leaves behind. A
+	 * journal with a torn or invalid header holds no move, since the header is synced before the first one, so it is
+	 * deleted instead of recovered.
+	 * @return The recovered matches by match id
+	 * @throws IOException if a journal can't be read
+	 */
+	public Map<String, ChessMatch> recover() throws IOException {
+		if (isClosed())
+			throw new IllegalStateException("The journal manager is closed.");
+		Map<String, ChessMatch> matches = new TreeMap<String, ChessMatch>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				String matchId = name.substring(0, name.length() - EXTENSION.length());
+				ChessMatch chessMatch = start(file);
+				if (chessMatch == null) {
+					Files.delete(file);
+					continue;
+				}
+				long valid = replay(file, chessMatch);
+				if (valid < Files.size(file))
+					try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+						channel.truncate(valid);
+					}
+				attach(matchId, chessMatch);
+				matches.put(matchId, chessMatch);
+			}
+		}
+		return matches;
+	}
+
+	/**
+	 * @return The match in the journal's starting position, or {@code null} if its header is torn or invalid
+	 */
+	private static ChessMatch start(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long header = headerLength(channel);
+			if (header == 0)
+				return new ChessMatch();
+			if (header < 0 || channel.size() < header)
+				return null;
+			ByteBuffer fen = ByteBuffer.allocate((int) header - HEADER_MAGIC.length - 2);
+			while (fen.hasRemaining())
+				channel.read(fen, HEADER_MAGIC.length + 2 + fen.position());
+			try {
+				return new ChessMatch(new String(fen.array(), StandardCharsets.US_ASCII));
+			} catch (ChessException e) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * @return The length of the header plus the bytes holding legal moves
+	 */
+	private static long replay(Path file, ChessMatch chessMatch) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long header = headerLength(channel);
+			ByteBuffer moves = channel.map(FileChannel.MapMode.READ_ONLY, header, (channel.size() - header) & ~1L);
+			while (moves.hasRemaining()) {
+				int move = moves.getShort(moves.position()) & 0xFFFF;
+				try {
+					if (move == Move.NONE)
+						chessMatch.undo();
+					else
+						chessMatch.performChessMove(Move.sourcePosition(move), Move.targetPosition(move));
+				} catch (ChessException e) {
+					break;
+				}
+				moves.position(moves.position() + 2);
+			}
+			return header + moves.position();
+		}
+	}
+
+	/**
+	 * @return The header's length, {@code 0} if the journal has none, or {@code -1} if it is torn before its length
+	 */
+	private static long headerLength(FileChannel channel) throws IOException {
+		ByteBuffer prefix = ByteBuffer.allocate(HEADER_MAGIC.length + 2);
+		while (prefix.hasRemaining() && channel.read(prefix, prefix.position()) > 0)
+			;
+		if (prefix.position() == 0 || prefix.get(0) != HEADER_MAGIC[0])
+			return 0;
+		if (prefix.hasRemaining() || !Arrays.equals(Arrays.copyOf(prefix.array(), HEADER_MAGIC.length), HEADER_MAGIC))
+			return -1;
+		return prefix.capacity() + (prefix.getShort(HEADER_MAGIC.length) & 0xFFFF);
+	}
+
+	long append(MatchJournal journal, int move) {
+		synchronized (lock) {
+			if (journal.closed || closed)
+				throw new IllegalStateException("The journal of match " + journal.getMatchId() + " is closed.");
+			if (journal.pending.remaining() < 2)
+				journal.pending = ByteBuffer.allocate(journal.pending.capacity() * 2).put(journal.pending.flip());
+			journal.pending.putShort((short) move);
+			if (!journal.dirty) {
+				journal.dirty = true;
+				dirtyJournals.add(journal);
+			}
+			journal.lastTicket = ++appended;
+			return appended;
+		}
+	}
+
+	long lastTicket(MatchJournal journal) {
+		synchronized (lock) {
+			return journal.lastTicket;
+		}
+	}
+
+	void closed(MatchJournal journal) {
+		synchronized (lock) {
+			journal.closed = true;
+			journals.remove(journal);
+		}
+	}
+
+	void awaitDurable(MatchJournal journal, long ticket) throws IOException, InterruptedException {
+		synchronized (lock) {
+			while (durable < ticket && journal.failure == null)
+				lock.wait();
+			if (journal.failure != null)
+				throw new IOException("Journal commit of match " + journal.getMatchId() + " failed.", journal.failure);
+		}
+	}
+
+	/**
+	 * Block until every move appended so far is committed.
+	 * @throws IOException if a commit of a journal that is still open failed
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void sync() throws IOException, InterruptedException {
+		List<MatchJournal> open;
+		synchronized (lock) {
+			long ticket = appended;
+			while (durable < ticket)
+				lock.wait();
+			open = new ArrayList<MatchJournal>(journals);
+		}
+		IOException error = null;
+		for (MatchJournal journal : open)
+			try {
+				journal.sync();
+			} catch (IOException e) {
+				if (error == null)
+					error = e;
+				else
+					error.addSuppressed(e);
+			}
+		if (error != null)
+			throw error;
+	}
+
+	/**
+	 * Commit everything appended so far, then stop the commit thread and close every open journal. Any later use
+	 * of the manager or its journals throws {@code IllegalStateException}. Journals stay attached to their matches,
+	 * so a match that goes on playing fails on its next move instead of silently going unjournaled.
+	 * @throws IOException if a journal's last commit or close fails; every journal is closed regardless
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (lock) {
+			if (closed)
+				return;
+			closed = true;
+		}
+		LockSupport.unpark(committer);
+		try {
+			committer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		List<MatchJournal> open;
+		synchronized (lock) {
+			open = new ArrayList<MatchJournal>(journals);
+		}
+		IOException error = null;
+		for (MatchJournal journal : open)
+			try {
+				journal.close(false);
+			} catch (IOException e) {
+				if (error == null)
+					error = e;
+				else
+					error.addSuppressed(e);
+			}
+		if (error != null)
+			throw error;
+	}
+
+	private void commitLoop() {
+		while (true) {
+			if (!isClosed())
+				LockSupport.parkNanos(intervalNanos);
+			long ticket;
+			synchronized (lock) {
+				if (dirtyJournals.isEmpty()) {
+					if (closed)
+						return;
+					continue;
+				}
+				List<MatchJournal> full = dirtyJournals;
+				dirtyJournals = batch;
+				batch = full;
+				for (MatchJournal journal : batch)
+					journal.swap();
+				ticket = appended;
+			}
+
+			// A journal's failure is only written by this thread, so it can be read here without the lock
+			for (MatchJournal journal : batch)
+				if (journal.failure == null)
+					try {
+						journal.write();
+					} catch (IOException e) {
+						fail(journal, e);
+					}
+			for (MatchJournal journal : batch)
+				if (journal.failure == null)
+					try {
+						journal.force();
+					} catch (IOException e) {
+						fail(journal, e);
+					}
+			batch.clear();
+
+			synchronized (lock) {
+				durable = ticket;
+				lock.notifyAll();
+			}
+		}
+	}
+
+	private void fail(MatchJournal journal, IOException e) {
+		synchronized (lock) {
+			journal.failure = e;
+		}
+	}
+
+	private boolean isClosed() {
+		synchronized (lock) {
+			return closed;
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package chess.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveListener;
+
+/**
+ * The append-only journal of one match: an optional header with the match's starting FEN, then every accepted move
+ * as a 16-bit big-endian value, encoded as described in {@link Move}, with {@link Move#NONE} recording a move taken
+ * back. Appends only copy the move into a memory
+ * buffer; the owning {@link JournalManager} writes and syncs the buffers of every journal in batches. A failed
+ * write or sync only affects this journal: it is reported by {@link #sync()} and {@link #awaitDurable(long)}, and
+ * nothing more is written to its file.
+ */
+public class MatchJournal implements MoveListener {
+
+	private String matchId;
+	private JournalManager manager;
+	private FileChannel channel;
+	private ChessMatch chessMatch;
+
+	// Guarded by the manager's lock
+	ByteBuffer pending;
+	boolean dirty;
+	boolean closed;
+	long lastTicket;
+	IOException failure;
+
+	// Only touched by the commit thread
+	ByteBuffer writing;
+
+	MatchJournal(String matchId, JournalManager manager, FileChannel channel) {
+		this.matchId = matchId;
+		this.manager = manager;
+		this.channel = channel;
+		this.pending = ByteBuffer.allocate(256);
+		this.writing = ByteBuffer.allocate(256);
+	}
+
+	public String getMatchId() {
+		return matchId;
+	}
+
+	/**
+	 * Queue a move for the next group commit.
+	 * @param move encoded move
+	 * @return A ticket to pass to {@link #awaitDurable(long)}
+	 * @throws IllegalStateException if the journal or its manager is closed
+	 */
+	public long append(int move) {
+		return manager.append(this, move);
+	}
+
+	@Override
+	public void moveMade(ChessMatch chessMatch, int move, ChessPiece capturedPiece) {
+		append(move);
+	}
+
+	@Override
+	public void moveUndone(ChessMatch chessMatch, int move) {
+		append(Move.NONE);
+	}
+
+	/**
+	 * Block until the move with the given ticket, and every move of this journal appended before it, is on the
+	 * storage device.
+	 * @param ticket value returned by {@link #append(int)}
+	 * @throws IOException if a commit of this journal failed
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void awaitDurable(long ticket) throws IOException, InterruptedException {
+		manager.awaitDurable(this, ticket);
+	}
+
+	/**
+	 * Block until every move appended to this journal so far is on the storage device.
+	 * @throws IOException if a commit of this journal failed
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void sync() throws IOException, InterruptedException {
+		manager.awaitDurable(this, manager.lastTicket(this));
+	}
+
+	/**
+	 * Stop journaling the match this journal is attached to, then close the journal file after its pending moves
+	 * are committed.
+	 * @throws IOException if a commit of this journal failed or the close fails
+	 */
+	public void close() throws IOException {
+		close(true);
+	}
+
+	void close(boolean detach) throws IOException {
+		if (detach && chessMatch != null)
+			chessMatch.removeMoveListener(this);
+		try {
+			sync();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			manager.closed(this);
+			channel.close();
+		}
+	}
+
+	boolean isEmpty() throws IOException {
+		return channel.size() == 0;
+	}
+
+	/**
+	 * Write and sync the header before any move is appended. Called by the manager only.
+	 */
+	void writeHeader(ByteBuffer header) throws IOException {
+		while (header.hasRemaining())
+			channel.write(header);
+		channel.force(false);
+	}
+
+	void attach(ChessMatch chessMatch) {
+		this.chessMatch = chessMatch;
+		chessMatch.addMoveListener(this);
+	}
+
+	/**
+	 * Swap the pending and writing buffers. Called by the manager with its lock held.
+	 */
+	void swap() {
+		ByteBuffer full = pending;
+		pending = writing;
+		writing = full;
+		pending.clear();
+		dirty = false;
+	}
+
+	void write() throws IOException {
+		writing.flip();
+		while (writing.hasRemaining())
+			channel.write(writing);
+	}
+
+	void force() throws IOException {
+		channel.force(false);
+	}
+}
@@ -0,0 +1,71 @@
+package chess.lookup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The file format shared by the lookup tables: the magic {@code CHLK} and a version byte, a kind byte, two
+ * reserved bytes and the big-endian 64-bit entry count, followed by the fixed-size entries in key order. Files are
+ * read through a read-only memory mapping, so opening one costs nothing and the OS page cache is shared between
+ * processes.
+ */
+final class LookupFile {
+
+	static final byte[] MAGIC = { 'C', 'H', 'L', 'K', 1 };
+	static final byte BOOK = 1;
+	static final byte ENDGAME = 2;
+
+	private static final int HEADER_BYTES = 16;
+
+	private LookupFile() {
+	}
+
+	/**
+	 * @param file output file, replaced if it exists
+	 * @param kind {@link #BOOK} or {@link #ENDGAME}
+	 * @param count number of entries
+	 * @param entries the entries, from position to limit
+	 */
+	static void write(Path file, byte kind, long count, ByteBuffer entries) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+		header.put(MAGIC).put(kind).putShort((short) 0).putLong(count).flip();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (header.hasRemaining())
+				channel.write(header);
+			while (entries.hasRemaining())
+				channel.write(entries);
+			channel.force(false);
+		}
+	}
+
+	/**
+	 * Map a lookup file and check its header.
+	 * @param file lookup file
+	 * @param kind expected kind
+	 * @param entryBytes size of one entry
+	 * @return A read-only buffer holding exactly the entries
+	 * @throws IOException if the file can't be read or is not a lookup file of that kind
+	 */
+	static ByteBuffer map(Path file, byte kind, int entryBytes) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			byte[] magic = new byte[MAGIC.length];
+			if (buffer.remaining() >= HEADER_BYTES)
+				buffer.get(magic);
+			if (!Arrays.equals(magic, MAGIC))
+				throw new IOException(file + " is not a lookup file.");
+			if (buffer.get() != kind)
+				throw new IOException(file + " holds another kind of lookup table.");
+			buffer.getShort();
+			long count = buffer.getLong();
+			if (count * entryBytes != buffer.remaining())
+				throw new IOException(file + " is truncated.");
+			return buffer.slice();
+		}
+	}
+}
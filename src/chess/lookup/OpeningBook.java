@@ -0,0 +1,112 @@
+package chess.lookup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import chess.ChessMatch;
+import chess.Move;
+import chess.MoveList;
+
+/**
+ * Known replies to opening positions, read from a memory-mapped file built by {@link OpeningBookBuilder}. Entries
+ * are sorted by position hash, so a probe is a binary search over the mapped file.
+ * <p>
+ * Entry layout: the 64-bit {@link ChessMatch#getHash() position hash}, then a 32-bit value holding the move, encoded
+ * as described in {@link Move}, in its low 16 bits and the move's weight in its high 16 bits. Entries of one
+ * position are ordered by decreasing weight.
+ */
+public class OpeningBook {
+
+	static final int ENTRY_BYTES = 12;
+
+	private ByteBuffer entries;
+	private int size;
+
+	private OpeningBook(ByteBuffer entries) {
+		this.entries = entries;
+		this.size = entries.capacity() / ENTRY_BYTES;
+	}
+
+	/**
+	 * @param file a book written by {@link OpeningBookBuilder#write(Path)}
+	 * @return The {@code OpeningBook}
+	 * @throws IOException if the file can't be read or is not a book
+	 */
+	public static OpeningBook open(Path file) throws IOException {
+		return new OpeningBook(LookupFile.map(file, LookupFile.BOOK, ENTRY_BYTES));
+	}
+
+	/**
+	 * @return The number of (position, move) entries
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Fill {@code moves} with the book moves for the current position of {@code match}, most played first. Moves
+	 * that are not legal in the position, which can only come from a hash collision, are left out.
+	 * @param match A {@code ChessMatch} object
+	 * @param moves A {@code MoveList} to clear and fill
+	 */
+	public void moves(ChessMatch match, MoveList moves) {
+		moves.clear();
+		long hash = match.getHash();
+		MoveList legal = null;
+		for (int i = first(hash); i < size && key(i) == hash; i++) {
+			if (legal == null)
+				legal = match.legalMoves();
+			int move = value(i) & 0xFFFF;
+			if (legal.contains(move))
+				moves.add(move);
+		}
+	}
+
+	/**
+	 * @param match A {@code ChessMatch} object
+	 * @return The most played book move for the current position, or {@link Move#NONE} if the position is not in
+	 *         the book
+	 */
+	public int bestMove(ChessMatch match) {
+		MoveList moves = new MoveList();
+		moves(match, moves);
+		return moves.isEmpty() ? Move.NONE : moves.get(0);
+	}
+
+	/**
+	 * @param hash position hash
+	 * @param move encoded move
+	 * @return How many times the move was played from the position in the source games, {@code 0} if never
+	 */
+	public int weight(long hash, int move) {
+		for (int i = first(hash); i < size && key(i) == hash; i++)
+			if ((value(i) & 0xFFFF) == move)
+				return value(i) >>> 16;
+		return 0;
+	}
+
+	/**
+	 * @return The index of the first entry whose key is not less than {@code hash}
+	 */
+	private int first(long hash) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (Long.compare(key(mid), hash) < 0)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	private long key(int index) {
+		return entries.getLong(index * ENTRY_BYTES);
+	}
+
+	private int value(int index) {
+		return entries.getInt(index * ENTRY_BYTES + 8);
+	}
+}
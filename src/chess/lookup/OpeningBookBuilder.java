@@ -0,0 +1,133 @@
+package chess.lookup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.Move;
+import chess.MoveList;
+import chess.io.GameReader;
+import chess.io.GameVisitor;
+
+/**
+ * Collects the opening moves of a game archive into an {@link OpeningBook}. Feed it archives with
+ * {@link #add(Path)}, then {@link #write(Path)} the book. Moves played fewer than the minimum count are left out.
+ */
+public class OpeningBookBuilder implements GameVisitor {
+
+	public static final int DEFAULT_PLIES = 16;
+
+	private int maxPlies;
+	private int minCount;
+	private Map<Long, Map<Integer, Integer>> counts;
+	private ChessMatch chessMatch;
+	private MoveList moves;
+	private int ply;
+	private boolean skipping;
+
+	public OpeningBookBuilder() {
+		this(DEFAULT_PLIES, 1);
+	}
+
+	/**
+	 * @param maxPlies how many plies of each game to record
+	 * @param minCount least number of times a move must be played to be kept
+	 */
+	public OpeningBookBuilder(int maxPlies, int minCount) {
+		this.maxPlies = maxPlies;
+		this.minCount = minCount;
+		this.counts = new HashMap<Long, Map<Integer, Integer>>();
+		this.moves = new MoveList();
+	}
+
+	/**
+	 * Record the openings of every game in an archive. The reader doesn't validate moves, since only the first plies
+	 * are used and those are checked here.
+	 * @param archive PGN or binary game archive
+	 * @throws IOException if the archive can't be read
+	 */
+	public void add(Path archive) throws IOException {
+		GameReader.read(archive, this, false);
+	}
+
+	@Override
+	public void beginGame() {
+		chessMatch = new ChessMatch();
+		ply = 0;
+		skipping = false;
+	}
+
+	/**
+	 * Games with a {@code FEN} tag are keyed from that position rather than the initial one.
+	 */
+	@Override
+	public void tag(String name, String value) {
+		if (name.equals("FEN") && !skipping && ply == 0)
+			chessMatch = new ChessMatch(value);
+	}
+
+	/**
+	 * @throws ChessException if the move is not legal in the game's current position
+	 */
+	@Override
+	public void move(int move) {
+		if (skipping || ply >= maxPlies)
+			return;
+		chessMatch.legalMoves(moves);
+		if (!moves.contains(move))
+			throw new ChessException("Illegal move: " + Move.toString(move));
+		counts.computeIfAbsent(chessMatch.getHash(), k -> new HashMap<Integer, Integer>()).merge(move, 1, Integer::sum);
+		chessMatch.makeMove(move);
+		ply++;
+	}
+
+	@Override
+	public void error(int moveIndex, String message) {
+		skipping = true;
+	}
+
+	@Override
+	public void endGame(String result) {
+		chessMatch = null;
+	}
+
+	/**
+	 * @return The number of distinct positions recorded so far
+	 */
+	public int getPositions() {
+		return counts.size();
+	}
+
+	/**
+	 * Write the book, sorted by position hash and, within a position, by decreasing weight.
+	 * @param file output file, replaced if it exists
+	 * @return The number of entries written
+	 * @throws IOException if the file can't be written
+	 */
+	public int write(Path file) throws IOException {
+		List<Long> keys = new ArrayList<Long>(counts.keySet());
+		keys.sort(null);
+		ByteBuffer entries = ByteBuffer.allocate(0);
+		int count = 0;
+		for (long key : keys) {
+			List<Map.Entry<Integer, Integer>> moves = new ArrayList<Map.Entry<Integer, Integer>>(counts.get(key).entrySet());
+			moves.sort((a, b) -> a.getValue().equals(b.getValue()) ? a.getKey() - b.getKey() : b.getValue() - a.getValue());
+			for (Map.Entry<Integer, Integer> move : moves) {
+				if (move.getValue() < minCount)
+					break;
+				if (entries.remaining() < OpeningBook.ENTRY_BYTES)
+					entries = ByteBuffer.allocate(Math.max(entries.capacity() * 2, 4096)).put(entries.flip());
+				entries.putLong(key).putInt(move.getKey() | Math.min(move.getValue(), 0xFFFF) << 16);
+				count++;
+			}
+		}
+		LookupFile.write(file, LookupFile.BOOK, count, entries.flip());
+		return count;
+	}
+}
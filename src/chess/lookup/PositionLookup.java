@@ -0,0 +1,62 @@
+package chess.lookup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import chess.ChessMatch;
+import chess.Move;
+
+/**
+ * Answers "what is known about this position" without searching: the opening book first, then the endgame
+ * tablebase. Either source may be missing.
+ */
+public class PositionLookup {
+
+	public static final String BOOK_FILE = "book.lookup";
+	public static final String ENDGAME_FILE = "krk.lookup";
+
+	private OpeningBook book;
+	private Tablebase tablebase;
+
+	/**
+	 * @param book An {@code OpeningBook} or {@code null}
+	 * @param tablebase A {@code Tablebase} or {@code null}
+	 */
+	public PositionLookup(OpeningBook book, Tablebase tablebase) {
+		this.book = book;
+		this.tablebase = tablebase;
+	}
+
+	/**
+	 * Open the tables a {@code BuildTables} run wrote to {@code directory}, skipping any that is not there.
+	 * @param directory lookup table directory
+	 * @return The {@code PositionLookup}
+	 * @throws IOException if a table exists but can't be read
+	 */
+	public static PositionLookup open(Path directory) throws IOException {
+		Path bookFile = directory.resolve(BOOK_FILE);
+		Path endgameFile = directory.resolve(ENDGAME_FILE);
+		return new PositionLookup(Files.exists(bookFile) ? OpeningBook.open(bookFile) : null,
+				Files.exists(endgameFile) ? Tablebase.open(endgameFile) : null);
+	}
+
+	public OpeningBook getBook() {
+		return book;
+	}
+
+	public Tablebase getTablebase() {
+		return tablebase;
+	}
+
+	/**
+	 * @param match A {@code ChessMatch} object
+	 * @return A known good move for the side to move, or {@link Move#NONE} if neither table covers the position
+	 */
+	public int hint(ChessMatch match) {
+		int move = book != null ? book.bestMove(match) : Move.NONE;
+		if (move == Move.NONE && tablebase != null)
+			move = tablebase.bestMove(match);
+		return move;
+	}
+}
@@ -0,0 +1,128 @@
+package chess.lookup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import chess.ChessBoard;
+import chess.ChessMatch;
+import chess.Color;
+import chess.Move;
+import chess.MoveList;
+import chess.PieceType;
+import chess.engine.Engine;
+
+/**
+ * Perfect-play results for every King and Rook versus King position, read from a memory-mapped table built by
+ * {@link TablebaseGenerator}. The table is indexed by side to move and the three piece squares; since the rules
+ * treat both colors alike, one table serves the rook on either side.
+ * <p>
+ * Each entry is one byte: {@code 0} for a draw, {@link #ILLEGAL} for a position that can't occur, otherwise one
+ * more than the number of plies until the side with the rook mates.
+ */
+public class Tablebase {
+
+	public static final int ENTRIES = 2 * ChessBoard.SQUARES * ChessBoard.SQUARES * ChessBoard.SQUARES;
+	public static final int ILLEGAL = 0xFF;
+
+	/**
+	 * Returned by {@link #probe(ChessMatch)} for a position the table does not cover.
+	 */
+	public static final int UNKNOWN = Integer.MIN_VALUE;
+
+	private ByteBuffer table;
+
+	private Tablebase(ByteBuffer table) {
+		this.table = table;
+	}
+
+	/**
+	 * @param file a table written by {@link TablebaseGenerator#write(Path, byte[])}
+	 * @return The {@code Tablebase}
+	 * @throws IOException if the file can't be read or is not a tablebase
+	 */
+	public static Tablebase open(Path file) throws IOException {
+		return new Tablebase(LookupFile.map(file, LookupFile.ENDGAME, 1));
+	}
+
+	/**
+	 * @param strongToMove whether the side with the rook is to move
+	 * @param strongKing square of the king of the side with the rook
+	 * @param rook rook square
+	 * @param weakKing square of the lone king
+	 * @return The table index
+	 */
+	public static int index(boolean strongToMove, int strongKing, int rook, int weakKing) {
+		return (((strongToMove ? 0 : 1) * ChessBoard.SQUARES + strongKing) * ChessBoard.SQUARES + rook) * ChessBoard.SQUARES + weakKing;
+	}
+
+	/**
+	 * @param index table index, as returned by {@link #index(boolean, int, int, int)}
+	 * @return The raw table entry
+	 */
+	public int entry(int index) {
+		return table.get(index) & 0xFF;
+	}
+
+	/**
+	 * Look up the current position of {@code match}.
+	 * @param match A {@code ChessMatch} object
+	 * @return For the side to move, {@code Engine.MATE - n} when it mates in {@code n} plies,
+	 *         {@code -(Engine.MATE - n)} when it is mated in {@code n} plies, {@code 0} for a draw (including bare
+	 *         kings), or {@link #UNKNOWN} when the material is not King and Rook versus King
+	 */
+	public int probe(ChessMatch match) {
+		Color strong;
+		if (isMaterial(match, Color.WHITE, 1, Color.BLACK, 0))
+			strong = Color.WHITE;
+		else if (isMaterial(match, Color.BLACK, 1, Color.WHITE, 0))
+			strong = Color.BLACK;
+		else if (isMaterial(match, Color.WHITE, 0, Color.BLACK, 0))
+			return 0;
+		else
+			return UNKNOWN;
+
+		Color weak = strong == Color.WHITE ? Color.BLACK : Color.WHITE;
+		boolean strongToMove = match.getCurrentPlayer() == strong;
+		int value = entry(index(strongToMove, square(match, strong, PieceType.KING), square(match, strong, PieceType.ROOK),
+				square(match, weak, PieceType.KING)));
+		if (value == 0)
+			return 0;
+		if (value == ILLEGAL)
+			return UNKNOWN;
+		return strongToMove ? Engine.MATE - (value - 1) : -(Engine.MATE - (value - 1));
+	}
+
+	/**
+	 * Pick a move that keeps the best result for the side to move: the fastest mate when winning, the slowest mate
+	 * or a rook capture when losing, and any move that keeps the draw otherwise.
+	 * @param match A {@code ChessMatch} object. It is restored to its current position before returning.
+	 * @return The encoded move, or {@link Move#NONE} if the position is not covered or has no legal move
+	 */
+	public int bestMove(ChessMatch match) {
+		if (probe(match) == UNKNOWN)
+			return Move.NONE;
+		MoveList moves = match.legalMoves();
+		int bestMove = Move.NONE;
+		int bestScore = Integer.MIN_VALUE;
+		for (int i = 0; i < moves.size(); i++) {
+			match.makeMove(moves.get(i));
+			int score = -probe(match);
+			match.unmakeMove();
+			if (score > bestScore) {
+				bestScore = score;
+				bestMove = moves.get(i);
+			}
+		}
+		return bestMove;
+	}
+
+	private static boolean isMaterial(ChessMatch match, Color a, int aRooks, Color b, int bRooks) {
+		return Long.bitCount(match.occupied(a)) == 1 + aRooks && Long.bitCount(match.pieces(a, PieceType.ROOK)) == aRooks
+				&& Long.bitCount(match.occupied(b)) == 1 + bRooks && Long.bitCount(match.pieces(b, PieceType.ROOK)) == bRooks;
+	}
+
+	private static int square(ChessMatch match, Color color, PieceType type) {
+		return Long.numberOfTrailingZeros(match.pieces(color, type));
+	}
+}
@@ -0,0 +1,160 @@
+package chess.lookup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import chess.Attacks;
+import chess.ChessBoard;
+
+/**
+ * Builds the {@link Tablebase} by retrograde analysis. Starting from every position where the lone king is mated,
+ * each pass resolves the positions one ply further from mate: the side with the rook wins in {@code n} plies if one
+ * of its moves reaches a loss in {@code n - 1}, and the lone king loses in {@code n} plies if every move it has
+ * reaches a win in at most {@code n - 1} without capturing the rook. Whatever is left unresolved when a pass
+ * finds nothing new is a draw.
+ * <p>
+ * Each pass reads only the entries of one side to move and writes only those of the other, so the 64 strong king
+ * squares are processed in parallel on a {@code ForkJoinPool} without any locking.
+ */
+public class TablebaseGenerator {
+
+	private TablebaseGenerator() {
+	}
+
+	/**
+	 * @param threads parallelism of the fork-join pool
+	 * @return The table, one entry per {@link Tablebase#index(boolean, int, int, int)}
+	 */
+	public static byte[] generate(int threads) throws InterruptedException, ExecutionException {
+		byte[] table = new byte[Tablebase.ENTRIES];
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			pool.submit(() -> IntStream.range(0, ChessBoard.SQUARES).parallel().forEach(sk -> initialize(table, sk))).get();
+			long resolved;
+			int plies = 1;
+			do {
+				boolean strongToMove = (plies & 1) == 1;
+				int value = plies;
+				resolved = pool.submit(() -> IntStream.range(0, ChessBoard.SQUARES).parallel()
+						.mapToLong(sk -> pass(table, strongToMove, sk, value)).sum()).get();
+				plies++;
+			} while (resolved > 0);
+		} finally {
+			pool.shutdown();
+		}
+		return table;
+	}
+
+	/**
+	 * @param file output file, replaced if it exists
+	 * @param table a table returned by {@link #generate(int)}
+	 * @throws IOException if the file can't be written
+	 */
+	public static void write(Path file, byte[] table) throws IOException {
+		LookupFile.write(file, LookupFile.ENDGAME, table.length, ByteBuffer.wrap(table));
+	}
+
+	/**
+	 * Mark the illegal positions and the mates, for every position with the strong king on {@code sk}.
+	 */
+	private static void initialize(byte[] table, int sk) {
+		for (int r = 0; r < ChessBoard.SQUARES; r++)
+			for (int wk = 0; wk < ChessBoard.SQUARES; wk++) {
+				if (!isLegal(true, sk, r, wk))
+					table[Tablebase.index(true, sk, r, wk)] = (byte) Tablebase.ILLEGAL;
+				if (!isLegal(false, sk, r, wk))
+					table[Tablebase.index(false, sk, r, wk)] = (byte) Tablebase.ILLEGAL;
+				else if (weakMoves(sk, r, wk) == 0 && isWeakInCheck(sk, r, wk))
+					table[Tablebase.index(false, sk, r, wk)] = 1;
+			}
+	}
+
+	/**
+	 * Resolve the positions that are {@code plies} plies from mate, entry value {@code plies + 1}.
+	 * @return The number of positions resolved
+	 */
+	private static long pass(byte[] table, boolean strongToMove, int sk, int plies) {
+		long resolved = 0;
+		for (int r = 0; r < ChessBoard.SQUARES; r++)
+			for (int wk = 0; wk < ChessBoard.SQUARES; wk++) {
+				int index = Tablebase.index(strongToMove, sk, r, wk);
+				if (table[index] != 0)
+					continue;
+				if (strongToMove ? strongReaches(table, sk, r, wk, plies) : weakLoses(table, sk, r, wk)) {
+					table[index] = (byte) (plies + 1);
+					resolved++;
+				}
+			}
+		return resolved;
+	}
+
+	/**
+	 * @return Whether a move of the side with the rook reaches a position whose entry is {@code value}
+	 */
+	private static boolean strongReaches(byte[] table, int sk, int r, int wk, int value) {
+		long kingTargets = Attacks.king(sk) & ~bit(r) & ~Attacks.king(wk);
+		while (kingTargets != 0) {
+			int to = Long.numberOfTrailingZeros(kingTargets);
+			kingTargets &= kingTargets - 1;
+			if (table[Tablebase.index(false, to, r, wk)] == value)
+				return true;
+		}
+		long rookTargets = Attacks.rook(r, bit(sk) | bit(wk)) & ~bit(sk) & ~bit(wk);
+		while (rookTargets != 0) {
+			int to = Long.numberOfTrailingZeros(rookTargets);
+			rookTargets &= rookTargets - 1;
+			if (table[Tablebase.index(false, sk, to, wk)] == value)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return Whether the lone king has at least one move and every move reaches a resolved win
+	 */
+	private static boolean weakLoses(byte[] table, int sk, int r, int wk) {
+		long targets = weakMoves(sk, r, wk);
+		if (targets == 0 || (targets & bit(r)) != 0)
+			return false;
+		while (targets != 0) {
+			int to = Long.numberOfTrailingZeros(targets);
+			targets &= targets - 1;
+			if (table[Tablebase.index(true, sk, r, to)] == 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return A bitboard of the lone king's legal targets, including the rook square when it can be captured
+	 */
+	private static long weakMoves(int sk, int r, int wk) {
+		long targets = Attacks.king(wk) & ~Attacks.king(sk);
+		long legal = 0L;
+		while (targets != 0) {
+			int to = Long.numberOfTrailingZeros(targets);
+			targets &= targets - 1;
+			if (to == r || (Attacks.rook(r, bit(sk) | bit(to)) & bit(to)) == 0)
+				legal |= bit(to);
+		}
+		return legal;
+	}
+
+	private static boolean isLegal(boolean strongToMove, int sk, int r, int wk) {
+		if (sk == r || sk == wk || r == wk || (Attacks.king(sk) & bit(wk)) != 0)
+			return false;
+		return !strongToMove || !isWeakInCheck(sk, r, wk);
+	}
+
+	private static boolean isWeakInCheck(int sk, int r, int wk) {
+		return (Attacks.rook(r, bit(sk) | bit(wk)) & bit(wk)) != 0;
+	}
+
+	private static long bit(int square) {
+		return 1L << square;
+	}
+}
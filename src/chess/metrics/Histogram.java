@@ -0,0 +1,99 @@
+package chess.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent latency histogram with HDR-style log-linear buckets: values below 32 get a bucket each, and every
+ * power of two above is split into 16 equal buckets, so a recorded value is known to within about 6% over the
+ * whole {@code long} range. Recording is lock-free and allocation-free.
+ */
+public class Histogram {
+
+	private static final int SUB_BITS = 4;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	private static final int LINEAR = 2 * SUB_COUNT;
+	private static final int BUCKETS = LINEAR + (63 - (SUB_BITS + 1)) * SUB_COUNT;
+
+	private AtomicLongArray counts;
+	private LongAdder count;
+	private LongAdder sum;
+	private AtomicLong max;
+
+	public Histogram() {
+		counts = new AtomicLongArray(BUCKETS);
+		count = new LongAdder();
+		sum = new LongAdder();
+		max = new AtomicLong();
+	}
+
+	/**
+	 * @param value a non-negative value, such as a duration in nanoseconds
+	 */
+	public void record(long value) {
+		counts.incrementAndGet(index(value));
+		count.increment();
+		sum.add(value);
+		if (value > max.get())
+			max.accumulateAndGet(value, Math::max);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public double getMean() {
+		long n = count.sum();
+		return n == 0 ? 0 : (double) sum.sum() / n;
+	}
+
+	/**
+	 * @param percentile percentile, 0 to 100
+	 * @return The highest value of the bucket holding the percentile, {@code 0} if nothing was recorded
+	 */
+	public long getPercentile(double percentile) {
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++)
+			total += counts.get(i);
+		if (total == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= rank)
+				return Math.min(highestValue(i), getMax());
+		}
+		return getMax();
+	}
+
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++)
+			counts.set(i, 0);
+		count.reset();
+		sum.reset();
+		max.set(0);
+	}
+
+	static int index(long value) {
+		if (value < LINEAR)
+			return (int) Math.max(value, 0);
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - SUB_BITS;
+		return LINEAR + (exponent - SUB_BITS - 1) * SUB_COUNT + (int) (value >>> shift) - SUB_COUNT;
+	}
+
+	static long highestValue(int index) {
+		if (index < LINEAR)
+			return index;
+		int exponent = (index - LINEAR) / SUB_COUNT + SUB_BITS + 1;
+		long sub = SUB_COUNT + (index - LINEAR) % SUB_COUNT;
+		int shift = exponent - SUB_BITS;
+		return ((sub + 1) << shift) - 1;
+	}
+}
@@ -0,0 +1,72 @@
+package chess.metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves {@link MoveMetrics} over HTTP on the loopback interface:
+ * <ul>
+ * <li>{@code GET /metrics}: the current {@link MetricsSnapshot} in the Prometheus text format</li>
+ * <li>{@code POST /metrics/enable}, {@code POST /metrics/disable}: turn the instrumentation on or off</li>
+ * <li>{@code POST /metrics/reset}: clear every counter and histogram</li>
+ * </ul>
+ */
+public class MetricsServer implements Closeable {
+
+	private HttpServer server;
+
+	/**
+	 * Start serving.
+	 * @param port TCP port, or {@code 0} for any free port
+	 * @throws IOException if the port can't be bound
+	 */
+	public MetricsServer(int port) throws IOException {
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		server.createContext("/metrics", this::handle);
+		server.start();
+	}
+
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		String path = exchange.getRequestURI().getPath();
+		String method = exchange.getRequestMethod();
+		int status = 200;
+		String body;
+		if (path.equals("/metrics") && method.equals("GET")) {
+			body = MoveMetrics.snapshot().toString();
+		} else if (path.equals("/metrics/enable") && method.equals("POST")) {
+			MoveMetrics.setEnabled(true);
+			body = "enabled\n";
+		} else if (path.equals("/metrics/disable") && method.equals("POST")) {
+			MoveMetrics.setEnabled(false);
+			body = "disabled\n";
+		} else if (path.equals("/metrics/reset") && method.equals("POST")) {
+			MoveMetrics.reset();
+			body = "reset\n";
+		} else {
+			status = 404;
+			body = "Not found\n";
+		}
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package chess.metrics;
+
+import java.util.Locale;
+import java.util.Map;
+
+import chess.metrics.MoveMetrics.Phase;
+
+/**
+ * An immutable copy of the {@link MoveMetrics} at one point in time. Phase latencies are in nanoseconds.
+ */
+public class MetricsSnapshot {
+
+	private static final Phase[] PHASES = Phase.values();
+	private static final String[] QUANTILES = { "0.5", "0.9", "0.99", "0.999" };
+
+	private boolean enabled;
+	private long attempted;
+	private long accepted;
+	private Map<String, Long> rejections;
+	private long[][] phases;
+	private double[] means;
+
+	MetricsSnapshot(boolean enabled, long attempted, long accepted, Map<String, Long> rejections, long[][] phases, double[] means) {
+		this.enabled = enabled;
+		this.attempted = attempted;
+		this.accepted = accepted;
+		this.rejections = rejections;
+		this.phases = phases;
+		this.means = means;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public long getAttempted() {
+		return attempted;
+	}
+
+	public long getAccepted() {
+		return accepted;
+	}
+
+	/**
+	 * @return The rejected move count by {@code MoveStatus} name, for every code with a rejection
+	 */
+	public Map<String, Long> getRejections() {
+		return rejections;
+	}
+
+	public long getCount(Phase phase) {
+		return phases[phase.ordinal()][0];
+	}
+
+	public double getMean(Phase phase) {
+		return means[phase.ordinal()];
+	}
+
+	/**
+	 * @param phase a phase
+	 * @param quantile index into 0.5, 0.9, 0.99 and 0.999
+	 * @return The latency in nanoseconds at that quantile
+	 */
+	public long getQuantile(Phase phase, int quantile) {
+		return phases[phase.ordinal()][1 + quantile];
+	}
+
+	public long getMax(Phase phase) {
+		return phases[phase.ordinal()][5];
+	}
+
+	/**
+	 * @return The snapshot in the Prometheus text exposition format
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(2048);
+		sb.append("chess_metrics_enabled ").append(enabled ? 1 : 0).append('\n');
+		sb.append("chess_moves_attempted_total ").append(attempted).append('\n');
+		sb.append("chess_moves_accepted_total ").append(accepted).append('\n');
+		for (Map.Entry<String, Long> e : rejections.entrySet())
+			sb.append("chess_moves_rejected_total{status=\"").append(e.getKey()).append("\"} ")
+					.append(e.getValue()).append('\n');
+		for (Phase phase : PHASES) {
+			String name = phase.name().toLowerCase(Locale.ROOT);
+			for (int q = 0; q < QUANTILES.length; q++)
+				sb.append("chess_move_phase_nanos{phase=\"").append(name).append("\",quantile=\"").append(QUANTILES[q])
+						.append("\"} ").append(getQuantile(phase, q)).append('\n');
+			sb.append("chess_move_phase_nanos_max{phase=\"").append(name).append("\"} ").append(getMax(phase)).append('\n');
+			sb.append("chess_move_phase_nanos_mean{phase=\"").append(name).append("\"} ")
+					.append(String.format(Locale.ROOT, "%.1f", getMean(phase))).append('\n');
+			sb.append("chess_move_phase_nanos_count{phase=\"").append(name).append("\"} ").append(getCount(phase)).append('\n');
+		}
+		return sb.toString();
+	}
+}
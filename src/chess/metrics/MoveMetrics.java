@@ -0,0 +1,116 @@
+package chess.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import chess.MoveStatus;
+
+/**
+ * Process-wide instrumentation of {@code ChessMatch.tryMove}: a latency histogram per phase, and counts of attempted,
+ * accepted and rejected moves, the rejections by {@link MoveStatus} code. Off by default; while off, a move pays one
+ * volatile read and nothing else.
+ */
+public final class MoveMetrics {
+
+	public enum Phase {
+		VALIDATE_SOURCE,
+		VALIDATE_TARGET,
+		MAKE_MOVE,
+		SELF_CHECK,
+		UNDO_MOVE,
+		OPPONENT_CHECK;
+	}
+
+	private static final Phase[] PHASES = Phase.values();
+
+	private static volatile boolean enabled;
+	private static final Histogram[] histograms = new Histogram[PHASES.length];
+	private static final LongAdder attempted = new LongAdder();
+	private static final LongAdder accepted = new LongAdder();
+	private static final LongAdder[] rejections = new LongAdder[MoveStatus.COUNT];
+
+	static {
+		for (int i = 0; i < histograms.length; i++)
+			histograms[i] = new Histogram();
+		for (int i = 0; i < rejections.length; i++)
+			rejections[i] = new LongAdder();
+	}
+
+	private MoveMetrics() {
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	public static void setEnabled(boolean enabled) {
+		MoveMetrics.enabled = enabled;
+	}
+
+	/**
+	 * Count a move attempt and start timing its first phase.
+	 * @return The start time in nanoseconds
+	 */
+	public static long attempt() {
+		attempted.increment();
+		return System.nanoTime();
+	}
+
+	/**
+	 * Record the duration of a phase that started at {@code start} and start timing the next one.
+	 * @param phase the phase that just ended
+	 * @param start start time of the phase in nanoseconds
+	 * @return The current time in nanoseconds
+	 */
+	public static long lap(Phase phase, long start) {
+		long now = System.nanoTime();
+		histograms[phase.ordinal()].record(now - start);
+		return now;
+	}
+
+	public static void accepted() {
+		accepted.increment();
+	}
+
+	/**
+	 * @param status the {@code MoveStatus} code the move was rejected with
+	 */
+	public static void rejected(int status) {
+		rejections[status].increment();
+	}
+
+	public static Histogram histogram(Phase phase) {
+		return histograms[phase.ordinal()];
+	}
+
+	/**
+	 * @return A copy of every counter and histogram summary
+	 */
+	public static MetricsSnapshot snapshot() {
+		Map<String, Long> rejected = new LinkedHashMap<String, Long>();
+		for (int i = 0; i < rejections.length; i++) {
+			long count = rejections[i].sum();
+			if (count != 0)
+				rejected.put(MoveStatus.name(i), count);
+		}
+		long[][] phases = new long[PHASES.length][];
+		double[] means = new double[PHASES.length];
+		for (int i = 0; i < PHASES.length; i++) {
+			Histogram h = histograms[i];
+			phases[i] = new long[] { h.getCount(), h.getPercentile(50), h.getPercentile(90), h.getPercentile(99),
+					h.getPercentile(99.9), h.getMax() };
+			means[i] = h.getMean();
+		}
+		return new MetricsSnapshot(enabled, attempted.sum(), accepted.sum(), rejected, phases, means);
+	}
+
+	public static void reset() {
+		for (Histogram h : histograms)
+			h.reset();
+		attempted.reset();
+		accepted.reset();
+		for (LongAdder count : rejections)
+			count.reset();
+	}
+}
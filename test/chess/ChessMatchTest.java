@@ -0,0 +1,209 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class ChessMatchTest {
+
+	private static final String INITIAL_FEN = "2rkr3/2rrr3/8/8/8/8/2RRR3/2RKR3 w - - 0 1";
+
+	/**
+	 * Kings and rooks only, so these are not the standard chess numbers (20, 400, 8902, 197281).
+	 */
+	@Test
+	void perftFromInitialPosition() {
+		ChessMatch chessMatch = new ChessMatch();
+		assertEquals(25, chessMatch.perft(1));
+		assertEquals(565, chessMatch.perft(2));
+		assertEquals(16437, chessMatch.perft(3));
+		assertEquals(471358, chessMatch.perft(4));
+	}
+
+	@Test
+	void perftRestoresThePosition() {
+		ChessMatch chessMatch = new ChessMatch();
+		MoveList moves = chessMatch.legalMoves();
+		chessMatch.makeMove(moves.get(moves.size() / 2));
+		long hash = chessMatch.getHash();
+		long nodes = chessMatch.perft(3);
+		assertEquals(hash, chessMatch.getHash());
+		assertEquals(nodes, chessMatch.perft(3));
+
+		long sum = 0;
+		chessMatch.legalMoves(moves);
+		for (int i = 0; i < moves.size(); i++) {
+			chessMatch.makeMove(moves.get(i));
+			sum += chessMatch.perft(2);
+			chessMatch.unmakeMove();
+		}
+		assertEquals(nodes, sum);
+	}
+
+	@Test
+	void perftMatchesFenCopy() {
+		ChessMatch chessMatch = playRandom(new SplittableRandom(1), 30);
+		ChessMatch copy = new ChessMatch(chessMatch.toFen());
+		assertEquals(chessMatch.perft(3), copy.perft(3));
+	}
+
+	@Test
+	void fenRoundTrip() {
+		assertEquals(INITIAL_FEN, new ChessMatch().toFen());
+		SplittableRandom random = new SplittableRandom(2);
+		for (int game = 0; game < 20; game++) {
+			ChessMatch chessMatch = new ChessMatch();
+			MoveList moves = new MoveList();
+			for (int ply = 0; ply < 80; ply++) {
+				String fen = chessMatch.toFen();
+				ChessMatch parsed = new ChessMatch(fen);
+				assertEquals(fen, parsed.toFen());
+				assertEquals(chessMatch.getHash(), parsed.getHash(), fen);
+				assertEquals(chessMatch.getCheck(), parsed.getCheck(), fen);
+				assertEquals(chessMatch.legalMoves().size(), parsed.legalMoves().size(), fen);
+				chessMatch.legalMoves(moves);
+				if (moves.isEmpty())
+					break;
+				chessMatch.makeMove(moves.get(random.nextInt(moves.size())));
+			}
+		}
+	}
+
+	@Test
+	void fenRejectsMalformedRecords() {
+		assertThrows(ChessException.class, () -> new ChessMatch("2rkr3/2rrr3/8/8/8/8/2RRR3"));
+		assertThrows(ChessException.class, () -> new ChessMatch("2rkr3/2rrr3/8/8/8/8/2RRR3/2RKR3 x"));
+		assertThrows(ChessException.class, () -> new ChessMatch("2rrr3/2rrr3/8/8/8/8/2RRR3/2RKR3 w"));
+		assertThrows(ChessException.class, () -> new ChessMatch("3k4/8/8/8/8/8/8/3RK3 w"));
+		assertEquals("3k4/8/8/8/8/8/8/3K4 b - - 0 7", new ChessMatch("  3k4/8/8/8/8/8/8/3K4   b  -  -  0  7 ").toFen());
+	}
+
+	@Test
+	void undoAndRedoWalkTheHistory() {
+		SplittableRandom random = new SplittableRandom(3);
+		ChessMatch chessMatch = new ChessMatch();
+		List<String> fens = new ArrayList<String>();
+		MoveList moves = new MoveList();
+		for (int ply = 0; ply < 60; ply++) {
+			chessMatch.legalMoves(moves);
+			if (moves.isEmpty())
+				break;
+			fens.add(chessMatch.toFen());
+			int move = moves.get(random.nextInt(moves.size()));
+			chessMatch.performChessMove(Move.sourcePosition(move), Move.targetPosition(move));
+		}
+		String last = chessMatch.toFen();
+		int played = chessMatch.getHistorySize();
+
+		for (int i = fens.size() - 1; i >= 0; i--) {
+			chessMatch.undo();
+			assertEquals(fens.get(i), chessMatch.toFen());
+		}
+		assertFalse(chessMatch.canUndo());
+		assertThrows(ChessException.class, chessMatch::undo);
+
+		for (int i = 1; i < fens.size(); i++) {
+			chessMatch.redo();
+			assertEquals(fens.get(i), chessMatch.toFen());
+		}
+		chessMatch.redo();
+		assertEquals(last, chessMatch.toFen());
+		assertEquals(played, chessMatch.getHistorySize());
+		assertFalse(chessMatch.canRedo());
+		assertThrows(ChessException.class, chessMatch::redo);
+	}
+
+	@Test
+	void redoSurvivesSearchButNotANewMove() {
+		ChessMatch chessMatch = playRandom(new SplittableRandom(4), 10);
+		chessMatch.undo();
+		chessMatch.undo();
+		String fen = chessMatch.toFen();
+
+		chessMatch.perft(2);
+		MoveList moves = chessMatch.legalMoves();
+		chessMatch.makeMove(moves.get(0));
+		chessMatch.unmakeMove();
+		assertEquals(fen, chessMatch.toFen());
+		assertTrue(chessMatch.canRedo());
+
+		int move = moves.get(moves.size() - 1);
+		chessMatch.performChessMove(Move.sourcePosition(move), Move.targetPosition(move));
+		assertFalse(chessMatch.canRedo());
+	}
+
+	@Test
+	void historyIsCapped() {
+		ChessMatch chessMatch = new ChessMatch("3k4/8/8/8/8/8/8/R2K4 w");
+		String[] shuttle = { "a1a2", "d8e8", "a2a1", "e8d8" };
+		for (int ply = 0; ply < 3 * ChessMatch.HISTORY_LIMIT; ply++) {
+			String move = shuttle[ply % shuttle.length];
+			chessMatch.performChessMove(new ChessPosition(move.charAt(0), move.charAt(1) - '0'),
+					new ChessPosition(move.charAt(2), move.charAt(3) - '0'));
+			assertTrue(chessMatch.getHistorySize() <= ChessMatch.HISTORY_LIMIT);
+		}
+		int size = chessMatch.getHistorySize();
+		for (int i = 0; i < size; i++)
+			chessMatch.undo();
+		assertFalse(chessMatch.canUndo());
+		assertTrue(chessMatch.toFen().startsWith("3k4/8/8/8/8/8/8/R2K4 w "), chessMatch.toFen());
+	}
+
+	@Test
+	void throwingListenerVetoesTheMove() {
+		ChessMatch chessMatch = playRandom(new SplittableRandom(5), 6);
+		chessMatch.undo();
+		String fen = chessMatch.toFen();
+		int history = chessMatch.getHistorySize();
+		List<String> events = new ArrayList<String>();
+		MoveListener recorder = new MoveListener() {
+
+			@Override
+			public void moveMade(ChessMatch match, int move, ChessPiece capturedPiece) {
+				events.add("made " + Move.toString(move));
+			}
+
+			@Override
+			public void moveUndone(ChessMatch match, int move) {
+				events.add("undone " + Move.toString(move));
+			}
+		};
+		MoveListener failing = (match, move, capturedPiece) -> {
+			throw new IllegalStateException("closed");
+		};
+		chessMatch.addMoveListener(recorder);
+		chessMatch.addMoveListener(failing);
+
+		int move = chessMatch.legalMoves().get(0);
+		assertEquals(MoveStatus.LISTENER_FAILED, chessMatch.tryMove(Move.source(move), Move.target(move)));
+		assertEquals(fen, chessMatch.toFen());
+		assertEquals(history, chessMatch.getHistorySize());
+		assertTrue(chessMatch.canRedo());
+		assertEquals(List.of("made " + Move.toString(move), "undone " + Move.toString(move)), events);
+		assertThrows(ChessException.class,
+				() -> chessMatch.performChessMove(Move.sourcePosition(move), Move.targetPosition(move)));
+
+		chessMatch.removeMoveListener(failing);
+		assertEquals(MoveStatus.OK, chessMatch.tryMove(Move.source(move), Move.target(move)));
+		assertFalse(chessMatch.canRedo());
+	}
+
+	private static ChessMatch playRandom(SplittableRandom random, int plies) {
+		ChessMatch chessMatch = new ChessMatch();
+		MoveList moves = new MoveList();
+		for (int ply = 0; ply < plies; ply++) {
+			chessMatch.legalMoves(moves);
+			if (moves.isEmpty())
+				break;
+			chessMatch.makeMove(moves.get(random.nextInt(moves.size())));
+		}
+		return chessMatch;
+	}
+}
@@ -0,0 +1,81 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+class ConcurrentChessMatchTest {
+
+	@Test
+	void readersSeeConsistentSnapshotsWhileAWriterPlays() throws InterruptedException {
+		ConcurrentChessMatch chessMatch = new ConcurrentChessMatch();
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicReference<String> failure = new AtomicReference<String>();
+		Thread[] readers = new Thread[2];
+		for (int i = 0; i < readers.length; i++) {
+			readers[i] = new Thread(() -> {
+				while (!done.get()) {
+					PositionSnapshot snapshot = chessMatch.getSnapshot();
+					String fen = snapshot.toFen();
+					if (new ChessMatch(fen).getHash() != snapshot.getHash())
+						failure.compareAndSet(null, fen);
+				}
+			});
+			readers[i].start();
+		}
+
+		SplittableRandom random = new SplittableRandom(1);
+		MoveList moves = new MoveList();
+		try {
+			for (int ply = 0; ply < 2000; ply++) {
+				chessMatch.legalMoves(moves);
+				if (moves.isEmpty()) {
+					while (chessMatch.canUndo())
+						chessMatch.undo();
+					continue;
+				}
+				if (chessMatch.canUndo() && random.nextInt(8) == 0) {
+					chessMatch.undo();
+					if (random.nextBoolean())
+						chessMatch.redo();
+					continue;
+				}
+				int move = moves.get(random.nextInt(moves.size()));
+				assertEquals(MoveStatus.OK, chessMatch.tryMove(Move.source(move), Move.target(move)));
+			}
+		} finally {
+			done.set(true);
+			for (Thread reader : readers)
+				reader.join();
+		}
+		assertNull(failure.get());
+	}
+
+	@Test
+	void readsFollowEveryChange() {
+		ConcurrentChessMatch chessMatch = new ConcurrentChessMatch("4k3/8/8/8/8/8/r7/R3K3 w - - 0 1");
+		assertFalse(chessMatch.canUndo());
+		chessMatch.performChessMove(new ChessPosition('a', 1), new ChessPosition('a', 2));
+		assertEquals("4k3/8/8/8/8/8/R7/4K3 b - - 0 1", chessMatch.toFen());
+		assertEquals(PieceType.ROOK, chessMatch.getLastCapturedPiece().getType());
+		assertTrue(chessMatch.canUndo());
+
+		chessMatch.undo();
+		assertEquals("4k3/8/8/8/8/8/r7/R3K3 w - - 0 1", chessMatch.toFen());
+		assertTrue(chessMatch.canRedo());
+		assertEquals(Color.BLACK, chessMatch.getPieces()[6][0].getColor());
+
+		chessMatch.redo();
+		assertFalse(chessMatch.canRedo());
+		assertEquals(Color.BLACK, chessMatch.getCurrentPlayer());
+		assertEquals(MoveStatus.NOT_YOUR_PIECE,
+				chessMatch.tryMove(ChessBoard.square(6, 0), ChessBoard.square(5, 0)));
+	}
+}
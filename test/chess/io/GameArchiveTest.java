@@ -0,0 +1,241 @@
+package chess.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.Move;
+import chess.MoveList;
+
+class GameArchiveTest {
+
+	private static final String[] RESULTS = { GameWriter.WHITE_WINS, GameWriter.BLACK_WINS, GameWriter.DRAW,
+			GameWriter.UNFINISHED };
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void pgnRoundTrip() throws IOException {
+		roundTrip(GameWriter.Format.PGN);
+	}
+
+	@Test
+	void binaryRoundTrip() throws IOException {
+		roundTrip(GameWriter.Format.BINARY);
+	}
+
+	@Test
+	void writerRejectsIllegalMoves() throws IOException {
+		try (GameWriter writer = new GameWriter(directory.resolve("games.pgn"), GameWriter.Format.PGN)) {
+			GameWriter.Game game = writer.newGame();
+			assertThrows(ChessException.class, () -> game.move(Move.of(0, 1)));
+		}
+	}
+
+	@Test
+	void pgnStartsFromFenTag() throws IOException {
+		Path file = directory.resolve("fen.pgn");
+		Files.writeString(file, "[FEN \"4k3/8/8/8/8/8/8/R3K3 w - - 0 1\"]\n\n1. Ra8+ Kd7 2. Ra7+ *\n");
+		List<Recorded> games = read(file);
+		assertEquals(1, games.size());
+		assertEquals("a1a8 e8d7 a8a7", games.get(0).text());
+		assertEquals(-1, games.get(0).error);
+	}
+
+	@Test
+	void pgnReportsIllegalMoves() throws IOException {
+		Path file = directory.resolve("illegal.pgn");
+		Files.writeString(file, "1. Rc3 Rc6 2. Rc3c8 *\n\n[FEN \"bogus\"]\n\n1. Ra8 *\n");
+		List<Recorded> games = read(file);
+		assertEquals(2, games.size());
+		assertEquals(2, games.get(0).error);
+		assertEquals(GameWriter.UNFINISHED, games.get(0).result);
+		assertEquals(0, games.get(1).error);
+	}
+
+	@Test
+	void binaryRejectsIllegalMoves() throws IOException {
+		Path file = directory.resolve("games.bin");
+		List<Recorded> written = write(file, GameWriter.Format.BINARY, 1);
+		byte[] bytes = Files.readAllBytes(file);
+		int move = written.get(0).moves.get(1);
+		bytes[GameWriter.BINARY_MAGIC.length + 4] = (byte) (move >>> 8 ^ 0x0F);
+		Files.write(file, bytes);
+		assertThrows(GameFormatException.class, () -> read(file));
+
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+		assertThrows(GameFormatException.class, () -> read(file));
+	}
+
+	@Test
+	void liveGamesArePersistedBeforeTheyEnd() throws IOException {
+		Path file = directory.resolve("live.bin");
+		try (GameWriter writer = new GameWriter(file, GameWriter.Format.BINARY)) {
+			GameWriter.Game first = writer.newGame();
+			GameWriter.Game second = writer.newGame();
+			MoveList moves = new ChessMatch().legalMoves();
+			first.move(moves.get(0));
+			second.move(moves.get(1));
+			List<Path> parts = partFiles();
+			assertEquals(2, parts.size());
+			for (Path part : parts)
+				assertEquals(2, Files.size(part));
+
+			second.end(GameWriter.DRAW);
+			first.end(GameWriter.UNFINISHED);
+			assertTrue(partFiles().isEmpty());
+		}
+		List<Recorded> games = read(file);
+		assertEquals(GameWriter.DRAW, games.get(0).result);
+		assertEquals(GameWriter.UNFINISHED, games.get(1).result);
+	}
+
+	@Test
+	void trustedReadsMatchValidatedReads() throws IOException {
+		for (GameWriter.Format format : GameWriter.Format.values()) {
+			Path file = directory.resolve("trusted." + format);
+			write(file, format, 20);
+			List<Recorded> validated = read(file, true);
+			List<Recorded> trusted = read(file, false);
+			assertEquals(validated.size(), trusted.size());
+			for (int i = 0; i < validated.size(); i++)
+				assertArrayEquals(validated.get(i).toArray(), trusted.get(i).toArray(), format + " game " + i);
+		}
+	}
+
+	@Test
+	void trustedBinaryReadsStillRejectMalformedMoves() throws IOException {
+		Path file = directory.resolve("bad.bin");
+		ByteBuffer bytes = ByteBuffer.allocate(GameWriter.BINARY_MAGIC.length + 5);
+		bytes.put(GameWriter.BINARY_MAGIC).putShort((short) 1).putShort((short) 0xF000).put((byte) 0);
+		Files.write(file, bytes.array());
+		assertThrows(GameFormatException.class, () -> read(file, false));
+	}
+
+	@Test
+	void unreadableFirstMoveDoesNotSwallowTheNextGame() throws IOException {
+		Path file = directory.resolve("unfinished.pgn");
+		Files.writeString(file, "[Round \"1\"]\n\n1. Zz9\n\n[Round \"2\"]\n\n1. Rc3 *\n");
+		List<Recorded> games = read(file);
+		assertEquals(2, games.size());
+		assertEquals(0, games.get(0).error);
+		assertEquals(GameWriter.UNFINISHED, games.get(0).result);
+		assertEquals(1, games.get(1).moves.size());
+		assertEquals(-1, games.get(1).error);
+	}
+
+	private List<Path> partFiles() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(f -> f.toString().endsWith(GameWriter.PART_EXTENSION)).collect(Collectors.toList());
+		}
+	}
+
+	private void roundTrip(GameWriter.Format format) throws IOException {
+		Path file = directory.resolve("games." + format);
+		List<Recorded> written = write(file, format, 40);
+		List<Recorded> read = read(file);
+		assertEquals(written.size(), read.size());
+		for (int i = 0; i < written.size(); i++) {
+			assertArrayEquals(written.get(i).toArray(), read.get(i).toArray(), "game " + i);
+			assertEquals(written.get(i).result, read.get(i).result, "game " + i);
+			assertEquals(-1, read.get(i).error, "game " + i);
+		}
+	}
+
+	private static List<Recorded> write(Path file, GameWriter.Format format, int count) throws IOException {
+		SplittableRandom random = new SplittableRandom(count);
+		List<Recorded> games = new ArrayList<Recorded>();
+		try (GameWriter writer = new GameWriter(file, format)) {
+			for (int i = 0; i < count; i++) {
+				GameWriter.Game game = writer.newGame().tag("Round", Integer.toString(i + 1));
+				Recorded recorded = new Recorded();
+				ChessMatch chessMatch = new ChessMatch();
+				MoveList moves = new MoveList();
+				int plies = random.nextInt(200);
+				for (int ply = 0; ply < plies; ply++) {
+					chessMatch.legalMoves(moves);
+					if (moves.isEmpty())
+						break;
+					int move = moves.get(random.nextInt(moves.size()));
+					game.move(move);
+					chessMatch.makeMove(move);
+					recorded.moves.add(move);
+				}
+				recorded.result = RESULTS[random.nextInt(RESULTS.length)];
+				game.end(recorded.result);
+				games.add(recorded);
+			}
+		}
+		return games;
+	}
+
+	private static List<Recorded> read(Path file) throws IOException {
+		return read(file, true);
+	}
+
+	private static List<Recorded> read(Path file, boolean validate) throws IOException {
+		List<Recorded> games = new ArrayList<Recorded>();
+		GameReader.read(file, new GameVisitor() {
+
+			private Recorded game;
+
+			@Override
+			public void beginGame() {
+				game = new Recorded();
+			}
+
+			@Override
+			public void move(int move) {
+				game.moves.add(move);
+			}
+
+			@Override
+			public void error(int moveIndex, String message) {
+				game.error = moveIndex;
+			}
+
+			@Override
+			public void endGame(String result) {
+				game.result = result;
+				games.add(game);
+			}
+		}, validate);
+		return games;
+	}
+
+	private static class Recorded {
+
+		private List<Integer> moves = new ArrayList<Integer>();
+		private String result;
+		private int error = -1;
+
+		private int[] toArray() {
+			return moves.stream().mapToInt(Integer::intValue).toArray();
+		}
+
+		private String text() {
+			StringBuilder sb = new StringBuilder();
+			for (int move : moves)
+				sb.append(sb.length() == 0 ? "" : " ").append(Move.toString(move));
+			return sb.toString();
+		}
+	}
+}
@@ -0,0 +1,165 @@
+package chess.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import chess.ChessMatch;
+import chess.Move;
+import chess.MoveList;
+import chess.MoveStatus;
+
+class JournalManagerTest {
+
+	private static final long COMMIT_MICROS = 500;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void recoverRebuildsMatches() throws Exception {
+		ChessMatch first = new ChessMatch();
+		ChessMatch second = new ChessMatch();
+		try (JournalManager journals = new JournalManager(directory, COMMIT_MICROS)) {
+			journals.attach("1", first);
+			journals.attach("2", second);
+			play(first, new SplittableRandom(1), 50);
+			play(second, new SplittableRandom(2), 30);
+			first.undo();
+			first.undo();
+			first.redo();
+			journals.sync();
+		}
+
+		try (JournalManager journals = new JournalManager(directory, COMMIT_MICROS)) {
+			Map<String, ChessMatch> matches = journals.recover();
+			assertEquals(2, matches.size());
+			assertEquals(first.toFen(), matches.get("1").toFen());
+			assertEquals(first.getHistorySize(), matches.get("1").getHistorySize());
+			assertEquals(second.toFen(), matches.get("2").toFen());
+			assertNotNull(journals.journal("1"));
+
+			// Recovered journals stay attached, so play goes on being journaled
+			play(matches.get("2"), new SplittableRandom(3), 10);
+			second = matches.get("2");
+			journals.sync();
+		}
+
+		try (JournalManager journals = new JournalManager(directory, COMMIT_MICROS)) {
+			assertEquals(second.toFen(), journals.recover().get("2").toFen());
+		}
+	}
+
+	@Test
+	void recoverTruncatesATornWrite() throws Exception {
+		ChessMatch chessMatch = new ChessMatch();
+		try (JournalManager journals = new JournalManager(directory, COMMIT_MICROS)) {
+			journals.attach("torn", chessMatch);
+			play(chessMatch, new SplittableRandom(4), 20);
+			journals.sync();
+		}
+		Path file = directory.resolve("torn" + JournalManager.EXTENSION);
+		long size = Files.size(file);
+		Files.write(file, new byte[] { 0x7F }, StandardOpenOption.APPEND);
+
+		try (JournalManager journals = new JournalManager(directory, COMMIT_MICROS)) {
+			assertEquals(chessMatch.toFen(), journals.recover().get("torn").toFen());
+		}
+		assertEquals(size, Files.size(file));
+	}
+
+	@Test
+	void deletedJournalsAreNotRecovered() throws Exception {
+		try (JournalManager journals = new JournalManager(directory, COMMIT_MICROS)) {
+			ChessMatch chessMatch = new ChessMatch();
+			MatchJournal journal = journals.attach("ended", chessMatch);
+			play(chessMatch, new SplittableRandom(5), 5);
+			journals.delete(journal);
+			assertFalse(Files.exists(directory.resolve("ended" + JournalManager.EXTENSION)));
+
+			// The journal is detached, so the match can go on without it
+			play(chessMatch, new SplittableRandom(6), 1);
+			journals.sync();
+		}
+		try (JournalManager journals = new JournalManager(directory, COMMIT_MICROS)) {
+			assertTrue(journals.recover().isEmpty());
+		}
+	}
+
+	@Test
+	void closedManagerRejectsUse() throws Exception {
+		JournalManager journals = new JournalManager(directory, COMMIT_MICROS);
+		ChessMatch chessMatch = new ChessMatch();
+		journals.attach("open", chessMatch);
+		journals.close();
+		journals.close();
+		assertThrows(IllegalStateException.class, () -> journals.open("late"));
+		assertThrows(IllegalStateException.class, journals::recover);
+		assertFalse(Files.exists(directory.resolve("late" + JournalManager.EXTENSION)));
+
+		// The journal can't take the move, so the match refuses it rather than play it unjournaled
+		String fen = chessMatch.toFen();
+		int move = chessMatch.legalMoves().get(0);
+		assertEquals(MoveStatus.LISTENER_FAILED, chessMatch.tryMove(Move.source(move), Move.target(move)));
+		assertEquals(fen, chessMatch.toFen());
+	}
+
+	@Test
+	void recoverStartsFromTheJournaledPosition() throws Exception {
+		ChessMatch chessMatch = new ChessMatch("4k3/8/8/8/8/8/r7/R3K3 w - - 0 12");
+		try (JournalManager journals = new JournalManager(directory, COMMIT_MICROS)) {
+			journals.attach("fen", chessMatch);
+			play(chessMatch, new SplittableRandom(8), 6);
+			journals.sync();
+		}
+		try (JournalManager journals = new JournalManager(directory, COMMIT_MICROS)) {
+			ChessMatch recovered = journals.recover().get("fen");
+			assertEquals(chessMatch.toFen(), recovered.toFen());
+			assertEquals(chessMatch.getHistorySize(), recovered.getHistorySize());
+		}
+	}
+
+	@Test
+	void recoverDeletesATornHeader() throws Exception {
+		Path file = directory.resolve("torn" + JournalManager.EXTENSION);
+		Files.write(file, new byte[] { 'C', 'H', 'S' });
+		try (JournalManager journals = new JournalManager(directory, COMMIT_MICROS)) {
+			assertTrue(journals.recover().isEmpty());
+		}
+		assertFalse(Files.exists(file));
+	}
+
+	@Test
+	void openRejectsAnOpenMatch() throws Exception {
+		try (JournalManager journals = new JournalManager(directory, COMMIT_MICROS)) {
+			MatchJournal journal = journals.attach("twice", new ChessMatch());
+			assertThrows(IllegalStateException.class, () -> journals.open("twice"));
+			assertThrows(IllegalStateException.class, () -> journals.attach("twice", new ChessMatch()));
+			journal.close();
+			journals.open("twice").close();
+		}
+	}
+
+	private static void play(ChessMatch chessMatch, SplittableRandom random, int plies) {
+		MoveList moves = new MoveList();
+		for (int ply = 0; ply < plies; ply++) {
+			chessMatch.legalMoves(moves);
+			if (moves.isEmpty())
+				return;
+			int move = moves.get(random.nextInt(moves.size()));
+			assertEquals(MoveStatus.OK, chessMatch.tryMove(Move.source(move), Move.target(move)));
+		}
+	}
+}